@@ -12,7 +12,9 @@ public final class AppConstants {
     public static final class Cache {
         public static final String USERS_CACHE = "users";
         public static final String PRODUCTS_CACHE = "products";
+        public static final String PRODUCT_SNAPSHOTS_CACHE = "productSnapshots";
         public static final String ORDERS_CACHE = "orders";
+        public static final String ORDER_OWNERSHIP_CACHE = "orderOwnership";
     }
 
     public static final class Validation {
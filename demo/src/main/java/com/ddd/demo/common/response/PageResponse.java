@@ -1,10 +1,13 @@
 package com.ddd.demo.common.response;
 
+import com.ddd.demo.common.utils.KeysetCursor;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 
@@ -12,15 +15,19 @@ import java.util.List;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PageResponse<T> {
 
     private List<T> content;
-    private int page;
+    // page, totalElements and totalPages are only known in offset mode
+    private Integer page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private boolean first;
     private boolean last;
+    // Cursor for the next page in keyset mode, absent on the last page
+    private String nextCursor;
 
     // Convert from Spring Page
     public static <T> PageResponse<T> from(Page<T> page) {
@@ -34,4 +41,15 @@ public class PageResponse<T> {
                 .last(page.isLast())
                 .build();
     }
-}
\ No newline at end of file
+
+    // Convert from a keyset window; no count query is needed
+    public static <T> PageResponse<T> from(Window<T> window, int size, boolean first) {
+        return PageResponse.<T>builder()
+                .content(window.getContent())
+                .size(size)
+                .first(first)
+                .last(!window.hasNext())
+                .nextCursor(window.hasNext() ? KeysetCursor.encode(window.positionAt(window.size() - 1)) : null)
+                .build();
+    }
+}
@@ -5,6 +5,7 @@ import com.ddd.demo.entity.product.Product;
 import com.ddd.demo.entity.user.User;
 import com.ddd.demo.repository.ProductRepository;
 import com.ddd.demo.repository.UserRepository;
+import com.ddd.demo.service.order.PricingEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,7 @@ public class BusinessValidationService {
 
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final PricingEngine pricingEngine;
 
     public List<String> validateOrder(OrderRequest orderRequest, Long userId) {
         List<String> errors = new ArrayList<>();
@@ -32,7 +34,7 @@ public class BusinessValidationService {
         }
 
         // Validate order items
-        BigDecimal calculatedSubtotal = BigDecimal.ZERO;
+        long calculatedSubtotal = 0;
         for (var itemRequest : orderRequest.getItems()) {
             Product product = productRepository.findById(itemRequest.getProductId()).orElse(null);
 
@@ -52,14 +54,15 @@ public class BusinessValidationService {
             }
 
             // Calculate subtotal
-            BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity()));
-            calculatedSubtotal = calculatedSubtotal.add(itemTotal);
+            calculatedSubtotal += pricingEngine.lineTotal(
+                    PricingEngine.toMinor(product.getPrice()), itemRequest.getQuantity(), 0);
         }
 
         // Validate subtotal matches
+        BigDecimal expectedSubtotal = PricingEngine.toAmount(calculatedSubtotal);
         if (orderRequest.getSubtotal() != null &&
-                orderRequest.getSubtotal().compareTo(calculatedSubtotal) != 0) {
-            errors.add("Subtotal mismatch. Expected: " + calculatedSubtotal +
+                orderRequest.getSubtotal().compareTo(expectedSubtotal) != 0) {
+            errors.add("Subtotal mismatch. Expected: " + expectedSubtotal +
                     ", Provided: " + orderRequest.getSubtotal());
         }
 
@@ -1,17 +1,44 @@
 package com.ddd.demo.config;
 
+import com.ddd.demo.common.constants.AppConstants;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    @Value("${app.cache.default-spec:maximumSize=10000,recordStats}")
+    private String defaultSpec;
+
+    @Value("${app.cache.orders-spec:maximumSize=20000,expireAfterWrite=10m,recordStats}")
+    private String ordersSpec;
+
+    @Value("${app.cache.order-ownership-spec:maximumSize=50000,expireAfterWrite=30m,recordStats}")
+    private String orderOwnershipSpec;
+
+    @Value("${app.cache.product-snapshots-spec:maximumSize=100000,expireAfterWrite=10s,recordStats}")
+    private String productSnapshotsSpec;
+
     @Bean
     public CacheManager cacheManager() {
-        return new ConcurrentMapCacheManager("users", "products", "orders", "config");
+        // Bounded caches with statistics; the names are fixed so actuator binds metrics for each at startup
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheSpecification(defaultSpec);
+        cacheManager.setCacheNames(List.of(
+                AppConstants.Cache.USERS_CACHE, AppConstants.Cache.PRODUCTS_CACHE, "config"));
+        cacheManager.registerCustomCache(AppConstants.Cache.ORDERS_CACHE, Caffeine.from(ordersSpec).build());
+        cacheManager.registerCustomCache(AppConstants.Cache.ORDER_OWNERSHIP_CACHE,
+                Caffeine.from(orderOwnershipSpec).build());
+        cacheManager.registerCustomCache(AppConstants.Cache.PRODUCT_SNAPSHOTS_CACHE,
+                Caffeine.from(productSnapshotsSpec).build());
+        return cacheManager;
     }
-}
\ No newline at end of file
+}
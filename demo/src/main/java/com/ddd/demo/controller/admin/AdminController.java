@@ -63,4 +63,13 @@ public class AdminController {
                 .header("Content-Disposition", "attachment; filename=" + filename)
                 .body(data);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/rollups/orders/rebuild")
+    @Operation(summary = "Rebuild order rollup", description = "Recompute daily order statistics for a date range")
+    public ResponseEntity<ApiResponse<Integer>> rebuildOrderRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        int rows = adminService.rebuildOrderRollup(startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(rows, "Order rollup rebuilt"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.ddd.demo.controller.coupon;
+
+import com.ddd.demo.common.response.ApiResponse;
+import com.ddd.demo.dto.coupon.CouponRequest;
+import com.ddd.demo.dto.coupon.CouponResponse;
+import com.ddd.demo.service.CouponService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/coupons")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Coupon Management", description = "APIs for managing coupons (Admin only)")
+public class CouponController {
+
+    private final CouponService couponService;
+
+    // Create coupon
+    @PostMapping
+    @Operation(summary = "Create coupon", description = "Create a new coupon")
+    public ResponseEntity<ApiResponse<CouponResponse>> createCoupon(@Valid @RequestBody CouponRequest request) {
+        CouponResponse coupon = couponService.createCoupon(request);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(coupon, "Coupon created successfully"));
+    }
+
+    // Get all coupons
+    @GetMapping
+    @Operation(summary = "Get coupons", description = "Get all coupons with their usage")
+    public ResponseEntity<ApiResponse<List<CouponResponse>>> getAllCoupons() {
+        return ResponseEntity.ok(ApiResponse.success(couponService.getAllCoupons()));
+    }
+
+    // Get coupon by ID
+    @GetMapping("/{id}")
+    @Operation(summary = "Get coupon", description = "Get coupon by ID")
+    public ResponseEntity<ApiResponse<CouponResponse>> getCouponById(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(couponService.getCouponById(id)));
+    }
+
+    // Update coupon
+    @PutMapping("/{id}")
+    @Operation(summary = "Update coupon", description = "Update coupon terms")
+    public ResponseEntity<ApiResponse<CouponResponse>> updateCoupon(
+            @PathVariable Long id,
+            @Valid @RequestBody CouponRequest request) {
+        CouponResponse coupon = couponService.updateCoupon(id, request);
+        return ResponseEntity.ok(ApiResponse.success(coupon, "Coupon updated successfully"));
+    }
+
+    // Deactivate coupon
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Deactivate coupon", description = "Deactivate a coupon so it can no longer be redeemed")
+    public ResponseEntity<ApiResponse<Void>> deactivateCoupon(@PathVariable Long id) {
+        couponService.deactivateCoupon(id);
+        return ResponseEntity.ok(ApiResponse.success(null, "Coupon deactivated successfully"));
+    }
+}
@@ -1,28 +1,52 @@
 package com.ddd.demo.controller.order;
 
+import com.ddd.demo.common.exception.ResourceNotFoundException;
 import com.ddd.demo.common.response.ApiResponse;
 import com.ddd.demo.common.response.PageResponse;
+import com.ddd.demo.common.utils.KeysetCursor;
+import com.ddd.demo.dto.order.OrderBatchStatusUpdateRequest;
+import com.ddd.demo.dto.order.OrderBatchStatusUpdateResponse;
+import com.ddd.demo.dto.order.OrderQuoteRequest;
+import com.ddd.demo.dto.order.OrderQuoteResponse;
 import com.ddd.demo.dto.order.OrderRequest;
 import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.OrderSearchRequest;
 import com.ddd.demo.dto.order.OrderStatusUpdateRequest;
+import com.ddd.demo.dto.order.OrderSubmissionResponse;
 import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.service.InvoiceService;
 import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.idempotency.IdempotencyService;
+import com.ddd.demo.service.idempotency.IdempotentResult;
+import com.ddd.demo.service.invoice.Invoice;
+import com.ddd.demo.service.order.AsyncOrderPipeline;
+import com.ddd.demo.service.order.OrderEventStream;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -30,18 +54,68 @@ import java.util.Map;
 @Tag(name = "Order Management", description = "APIs for managing orders")
 public class OrderController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     private final OrderService orderService;
+    private final InvoiceService invoiceService;
+    private final IdempotencyService idempotencyService;
+    private final OrderEventStream orderEventStream;
+    // Present when app.order.async.enabled is set
+    private final Optional<AsyncOrderPipeline> asyncOrderPipeline;
 
-    // Create order
+    // Create order; in async mode the order is queued and 202 points at its submission status
     @PostMapping
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Create order", description = "Create a new order")
-    public ResponseEntity<ApiResponse<OrderResponse>> createOrder(
+    @Operation(summary = "Create order", description = "Create a new order. When async processing is enabled "
+            + "the order is accepted with 202 and its status is polled from the Location URL; "
+            + "429 with Retry-After means the queue is full")
+    public ResponseEntity<? extends ApiResponse<?>> createOrder(
             @RequestAttribute("userId") Long userId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody OrderRequest request) {
-        OrderResponse order = orderService.createOrder(userId, request);
+        if (asyncOrderPipeline.isPresent()) {
+            return submitOrder(asyncOrderPipeline.get(), userId, idempotencyKey, request);
+        }
+        if (idempotencyKey == null) {
+            OrderResponse order = orderService.createOrder(userId, request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success(order, "Order created successfully"));
+        }
+
+        // Retries with the same key get the first response back instead of a second order
+        IdempotentResult<OrderResponse> result = idempotencyService.execute("orders:" + userId, idempotencyKey,
+                request, OrderResponse.class, () -> orderService.createOrder(userId, request));
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success(order, "Order created successfully"));
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(ApiResponse.success(result.response(), "Order created successfully"));
+    }
+
+    // Price a cart without placing the order
+    @PostMapping("/quote")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Quote order", description = "Totals for a cart as placing it would compute them. "
+            + "Nothing is reserved or redeemed; stock is advisory and an unusable coupon is reported, not applied")
+    public ResponseEntity<ApiResponse<OrderQuoteResponse>> quoteOrder(@Valid @RequestBody OrderQuoteRequest request) {
+        return ResponseEntity.ok(ApiResponse.success(orderService.quoteOrder(request)));
+    }
+
+    // Get the state of an order accepted for async processing
+    @GetMapping("/submissions/{orderNumber}")
+    @PreAuthorize("isAuthenticated()")
+    @Operation(summary = "Get order submission", description = "Status of an order accepted with 202: "
+            + "ACCEPTED, PROCESSING, COMPLETED (with orderId) or FAILED (with message)")
+    public ResponseEntity<ApiResponse<OrderSubmissionResponse>> getOrderSubmission(
+            @RequestAttribute("userId") Long userId,
+            @PathVariable String orderNumber) {
+        OrderSubmissionResponse submission = asyncOrderPipeline
+                .flatMap(pipeline -> pipeline.getSubmission(orderNumber, userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Order submission not found: " + orderNumber));
+        return ResponseEntity.ok(ApiResponse.success(submission));
     }
 
     // Get order by ID
@@ -53,6 +127,15 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(order));
     }
 
+    // Stream order status changes
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or @orderService.isOrderOwner(#id, authentication.principal.id)")
+    @Operation(summary = "Watch order", description = "Server-Sent Events stream of status, payment and tracking "
+            + "changes. The current state is sent first; every 'order-status' event carries the full state")
+    public SseEmitter streamOrderEvents(@PathVariable Long id) {
+        return orderEventStream.subscribe(id, () -> orderService.getOrderStatus(id));
+    }
+
     // Get order by order number
     @GetMapping("/number/{orderNumber}")
     @Operation(summary = "Get by order number", description = "Get order by order number")
@@ -65,11 +148,18 @@ public class OrderController {
     // Get user orders
     @GetMapping("/my-orders")
     @PreAuthorize("isAuthenticated()")
-    @Operation(summary = "Get my orders", description = "Get current user's orders")
+    @Operation(summary = "Get my orders", description = "Get current user's orders. "
+            + "Pass cursor (empty for the first page) to page by nextCursor instead of page number")
     public ResponseEntity<ApiResponse<PageResponse<OrderResponse>>> getMyOrders(
             @RequestAttribute("userId") Long userId,
             @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) String cursor,
             @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
+        if (cursor != null) {
+            Window<OrderResponse> orders = orderService.getUserOrders(
+                    userId, status, KeysetCursor.decode(cursor), pageable.getPageSize());
+            return ResponseEntity.ok(ApiResponse.success(PageResponse.from(orders, pageable.getPageSize(), cursor.isBlank())));
+        }
         Page<OrderResponse> orders = orderService.getUserOrders(userId, status, pageable);
         return ResponseEntity.ok(ApiResponse.success(PageResponse.from(orders)));
     }
@@ -77,13 +167,19 @@ public class OrderController {
     // Get all orders - Admin
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all orders", description = "Get all orders (Admin only)")
+    @Operation(summary = "Get all orders", description = "Get all orders (Admin only), filtered by any combination of "
+            + "user, status, payment status, payment method and date range. "
+            + "Pass cursor (empty for the first page) to page by nextCursor instead of page number")
     public ResponseEntity<ApiResponse<PageResponse<OrderResponse>>> getAllOrders(
-            @RequestParam(required = false) Order.OrderStatus status,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @ModelAttribute OrderSearchRequest search,
+            @RequestParam(required = false) String cursor,
             @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        Page<OrderResponse> orders = orderService.getAllOrders(status, startDate, endDate, pageable);
+        if (cursor != null) {
+            Window<OrderResponse> orders = orderService.getAllOrders(
+                    search, KeysetCursor.decode(cursor), pageable.getPageSize());
+            return ResponseEntity.ok(ApiResponse.success(PageResponse.from(orders, pageable.getPageSize(), cursor.isBlank())));
+        }
+        Page<OrderResponse> orders = orderService.getAllOrders(search, pageable);
         return ResponseEntity.ok(ApiResponse.success(PageResponse.from(orders)));
     }
 
@@ -98,6 +194,16 @@ public class OrderController {
         return ResponseEntity.ok(ApiResponse.success(order, "Order status updated"));
     }
 
+    // Update status of many orders
+    @PostMapping("/status:batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Batch update status", description = "Move many orders to one status (Admin only)")
+    public ResponseEntity<ApiResponse<OrderBatchStatusUpdateResponse>> updateOrderStatuses(
+            @Valid @RequestBody OrderBatchStatusUpdateRequest request) {
+        OrderBatchStatusUpdateResponse response = orderService.updateOrderStatuses(request);
+        return ResponseEntity.ok(ApiResponse.success(response, "Order statuses updated"));
+    }
+
     // Cancel order
     @PostMapping("/{id}/cancel")
     @PreAuthorize("hasRole('ADMIN') or @orderService.canCancelOrder(#id, authentication.principal.id)")
@@ -145,12 +251,42 @@ public class OrderController {
     // Generate invoice
     @GetMapping("/{id}/invoice")
     @PreAuthorize("hasRole('ADMIN') or @orderService.isOrderOwner(#id, authentication.principal.id)")
-    @Operation(summary = "Get invoice", description = "Generate order invoice")
-    public ResponseEntity<byte[]> generateInvoice(@PathVariable Long id) {
-        byte[] invoice = orderService.generateInvoice(id);
-        return ResponseEntity.ok()
-                .header("Content-Type", "application/pdf")
-                .header("Content-Disposition", "attachment; filename=invoice-" + id + ".pdf")
-                .body(invoice);
+    @Operation(summary = "Get invoice", description = "Download the order invoice as PDF")
+    public void generateInvoice(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Invoice invoice = invoiceService.getInvoice(id);
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice-" + id + ".pdf");
+
+        if (invoice.isCached()) {
+            long length = Files.size(invoice.getFile());
+            response.setContentLengthLong(length);
+            // Let Tomcat hand the cached file to the socket with sendfile instead of copying it through the JVM
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+                request.setAttribute(SENDFILE_FILENAME_ATTR, invoice.getFile().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START_ATTR, 0L);
+                request.setAttribute(SENDFILE_END_ATTR, length);
+                return;
+            }
+        }
+        invoice.writeTo(response.getOutputStream());
+    }
+
+    private ResponseEntity<ApiResponse<OrderSubmissionResponse>> submitOrder(
+            AsyncOrderPipeline pipeline, Long userId, String idempotencyKey, OrderRequest request) {
+        OrderSubmissionResponse submission;
+        boolean replayed = false;
+        if (idempotencyKey == null) {
+            submission = pipeline.submit(userId, request);
+        } else {
+            IdempotentResult<OrderSubmissionResponse> result = idempotencyService.execute("orders:" + userId,
+                    idempotencyKey, request, OrderSubmissionResponse.class, () -> pipeline.submit(userId, request));
+            submission = result.response();
+            replayed = result.replayed();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create(submission.getStatusUrl()))
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(replayed))
+                .body(ApiResponse.success(submission, "Order accepted for processing"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.ddd.demo.dto.coupon;
+
+import com.ddd.demo.entity.coupon.Coupon;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponRequest {
+
+    @NotBlank(message = "Coupon code is required")
+    @Pattern(regexp = "^[A-Z0-9]{4,20}$", message = "Coupon code must be 4-20 alphanumeric characters")
+    private String code;
+
+    @Size(max = 255, message = "Description must not exceed 255 characters")
+    private String description;
+
+    @NotNull(message = "Discount type is required")
+    private Coupon.DiscountType discountType;
+
+    @NotNull(message = "Discount value is required")
+    @DecimalMin(value = "0.01", message = "Discount value must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Discount value format is invalid")
+    private BigDecimal discountValue;
+
+    @DecimalMin(value = "0.01", message = "Maximum discount must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Maximum discount format is invalid")
+    private BigDecimal maxDiscountAmount;
+
+    @DecimalMin(value = "0.00", message = "Minimum order amount must be non-negative")
+    @Digits(integer = 8, fraction = 2, message = "Minimum order amount format is invalid")
+    private BigDecimal minOrderAmount;
+
+    @Size(max = 100, message = "Category must not exceed 100 characters")
+    private String category;
+
+    @Min(value = 1, message = "Usage limit must be at least 1")
+    private Integer usageLimit;
+
+    @Min(value = 1, message = "Per-user limit must be at least 1")
+    private Integer perUserLimit;
+
+    private LocalDateTime startsAt;
+
+    private LocalDateTime expiresAt;
+
+    private Boolean active;
+}
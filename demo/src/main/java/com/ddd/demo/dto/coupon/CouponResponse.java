@@ -0,0 +1,35 @@
+package com.ddd.demo.dto.coupon;
+
+import com.ddd.demo.entity.coupon.Coupon;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponResponse {
+
+    private Long id;
+    private String code;
+    private String description;
+    private Coupon.DiscountType discountType;
+    private BigDecimal discountValue;
+    private BigDecimal maxDiscountAmount;
+    private BigDecimal minOrderAmount;
+    private String category;
+    private Integer usageLimit;
+    private Integer perUserLimit;
+    // Redemptions so far, from the usage store
+    private long usedCount;
+    private LocalDateTime startsAt;
+    private LocalDateTime expiresAt;
+    private Boolean active;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
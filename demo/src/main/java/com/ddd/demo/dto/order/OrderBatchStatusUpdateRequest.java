@@ -0,0 +1,36 @@
+package com.ddd.demo.dto.order;
+
+import com.ddd.demo.entity.order.Order;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchStatusUpdateRequest {
+
+    @NotEmpty(message = "Order ids are required")
+    @Size(max = 500, message = "At most 500 orders can be updated at once")
+    private List<@NotNull Long> orderIds;
+
+    @NotNull(message = "Status is required")
+    private Order.OrderStatus status;
+
+    @Size(max = 500, message = "Notes must not exceed 500 characters")
+    private String notes;
+
+    // Applied to every order moved to SHIPPED
+    private String trackingNumber;
+
+    // For cancellation
+    @Size(max = 500, message = "Cancellation reason must not exceed 500 characters")
+    private String cancellationReason;
+}
@@ -0,0 +1,35 @@
+package com.ddd.demo.dto.order;
+
+import com.ddd.demo.entity.order.Order;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchStatusUpdateResponse {
+
+    private Order.OrderStatus targetStatus;
+    private int updatedCount;
+    private int failedCount;
+    private List<Result> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private Long orderId;
+        private String orderNumber;
+        private boolean success;
+        private Order.OrderStatus previousStatus;
+        private String message;
+    }
+}
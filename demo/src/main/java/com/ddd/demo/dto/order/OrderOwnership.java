@@ -0,0 +1,11 @@
+package com.ddd.demo.dto.order;
+
+import com.ddd.demo.entity.order.Order;
+
+// Just enough of an order to authorize access to it: the owner and the current status
+public record OrderOwnership(Long orderId, Long userId, Order.OrderStatus status) {
+
+    public boolean isOwnedBy(Long candidateUserId) {
+        return userId.equals(candidateUserId);
+    }
+}
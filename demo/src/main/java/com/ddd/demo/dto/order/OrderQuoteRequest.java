@@ -0,0 +1,37 @@
+package com.ddd.demo.dto.order;
+
+import com.ddd.demo.common.validation.ValidEnum;
+import com.ddd.demo.entity.order.Order;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// The pricing part of an OrderRequest; the same values give the same totals as placing the order
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderQuoteRequest {
+
+    @NotEmpty(message = "Order must contain at least one item")
+    @Size(max = 50, message = "Order cannot contain more than 50 items")
+    @Valid
+    private List<OrderItemRequest> items;
+
+    @Pattern(regexp = "^[A-Z0-9]{4,20}$", message = "Coupon code must be 4-20 alphanumeric characters")
+    private String couponCode;
+
+    @ValidEnum(enumClass = Order.ShippingMethod.class, message = "Invalid shipping method")
+    private String shippingMethod;
+
+    // Declared subtotal, used for the free shipping threshold as on OrderRequest
+    @DecimalMin(value = "0.01", message = "Subtotal must be greater than 0")
+    @DecimalMax(value = "999999999.99", message = "Subtotal is too large")
+    private BigDecimal subtotal;
+}
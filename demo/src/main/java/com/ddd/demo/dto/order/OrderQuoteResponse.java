@@ -0,0 +1,43 @@
+package com.ddd.demo.dto.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderQuoteResponse {
+
+    private List<Line> items;
+    private BigDecimal subtotal;
+    private BigDecimal discountAmount;
+    private BigDecimal taxAmount;
+    private BigDecimal shippingFee;
+    private BigDecimal totalAmount;
+    private String couponCode;
+    // Why the coupon was not applied; the totals are then quoted without it
+    private String couponMessage;
+    // False when any line asks for more than is currently in stock
+    private boolean available;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long productId;
+        private String productName;
+        private BigDecimal unitPrice;
+        private Integer quantity;
+        private BigDecimal totalPrice;
+        private boolean inStock;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ddd.demo.dto.order;
+
+import com.ddd.demo.entity.order.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Admin order search; every criterion is optional and all given criteria are combined with AND
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchRequest {
+
+    private Long userId;
+
+    private Order.OrderStatus status;
+
+    private Order.PaymentStatus paymentStatus;
+
+    private Order.PaymentMethod paymentMethod;
+
+    // Inclusive calendar days; either end may be left open
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+}
@@ -0,0 +1,70 @@
+package com.ddd.demo.dto.order;
+
+import com.ddd.demo.entity.order.ArchivedOrder;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.event.OrderSnapshot;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Payload of the order status stream; every event carries the full current state, so a client may skip events
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEvent {
+
+    private Long orderId;
+    private String orderNumber;
+    private Order.OrderStatus status;
+    private Order.PaymentStatus paymentStatus;
+    private String trackingNumber;
+    private LocalDateTime occurredAt;
+
+    public static OrderStatusEvent of(OrderSnapshot snapshot) {
+        return OrderStatusEvent.builder()
+                .orderId(snapshot.getOrderId())
+                .orderNumber(snapshot.getOrderNumber())
+                .status(snapshot.getStatus())
+                .paymentStatus(snapshot.getPaymentStatus())
+                .trackingNumber(snapshot.getTrackingNumber())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    public static OrderStatusEvent of(OrderResponse order) {
+        return OrderStatusEvent.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
+                .trackingNumber(order.getTrackingNumber())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    public static OrderStatusEvent of(Order order) {
+        return OrderStatusEvent.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
+                .trackingNumber(order.getTrackingNumber())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+
+    public static OrderStatusEvent of(ArchivedOrder order) {
+        return OrderStatusEvent.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
+                .trackingNumber(order.getTrackingNumber())
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
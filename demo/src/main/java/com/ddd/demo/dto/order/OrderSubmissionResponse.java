@@ -0,0 +1,38 @@
+package com.ddd.demo.dto.order;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// State of an order accepted for asynchronous processing
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderSubmissionResponse {
+
+    private String orderNumber;
+    private Status status;
+    private String statusUrl;
+    // Set once the order has been created
+    private Long orderId;
+    // Reason when the order could not be created
+    private String message;
+    private LocalDateTime submittedAt;
+
+    @JsonIgnore
+    private Long userId;
+
+    public enum Status {
+        ACCEPTED,
+        PROCESSING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,64 @@
+package com.ddd.demo.entity.coupon;
+
+import com.ddd.demo.entity.base.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "coupons", indexes = {
+        @Index(name = "idx_coupon_code", columnList = "code", unique = true)
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Coupon extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 20)
+    private String code;
+
+    @Column(length = 255)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DiscountType discountType;
+
+    // Percentage (0-100) for PERCENT, amount for FIXED
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal discountValue;
+
+    // Upper bound for PERCENT discounts; null for no cap
+    @Column(precision = 10, scale = 2)
+    private BigDecimal maxDiscountAmount;
+
+    // Minimum order subtotal; null for no minimum
+    @Column(precision = 10, scale = 2)
+    private BigDecimal minOrderAmount;
+
+    // Only items of this product category are discounted; null for the whole order
+    @Column(length = 100)
+    private String category;
+
+    // Total redemptions across all users; null for unlimited
+    private Integer usageLimit;
+
+    // Redemptions per user; null for unlimited
+    private Integer perUserLimit;
+
+    private LocalDateTime startsAt;
+
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean active = true;
+
+    public enum DiscountType {
+        PERCENT, FIXED
+    }
+}
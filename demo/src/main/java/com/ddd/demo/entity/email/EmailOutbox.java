@@ -0,0 +1,65 @@
+package com.ddd.demo.entity.email;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Templated email waiting to be delivered. Rows are written in the same transaction as the
+ * business change that triggers them and removed by the dispatcher once the mail is sent.
+ * While a dispatcher is sending, the row is IN_PROGRESS and {@code nextAttemptAt} is the end of
+ * its lease; a row whose lease ran out (the dispatcher died mid-send) is claimed again.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, nextAttemptAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 100)
+    private String templateName;
+
+    // Template variables serialized as JSON
+    @Lob
+    @Column(nullable = false)
+    private String variables;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    // Next delivery attempt, or the lease expiry while IN_PROGRESS
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum OutboxStatus {
+        PENDING, IN_PROGRESS, FAILED
+    }
+}
@@ -0,0 +1,69 @@
+package com.ddd.demo.entity.job;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a chunked background job. The row is updated in the same transaction as each
+ * chunk, so after a crash the next run resumes after the last committed chunk with the same
+ * cutoff instead of starting over.
+ */
+@Entity
+@Table(name = "job_checkpoint")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobCheckpoint {
+
+    @Id
+    @Column(length = 100)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private RunStatus status;
+
+    // Rows created before this instant are in scope for the current run
+    private LocalDateTime cutoff;
+
+    // Highest id handled by the current run
+    @Column(nullable = false)
+    @Builder.Default
+    private Long lastProcessedId = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long processedCount = 0L;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime updatedAt;
+
+    public void startRun(LocalDateTime cutoff, LocalDateTime now) {
+        this.status = RunStatus.RUNNING;
+        this.cutoff = cutoff;
+        this.lastProcessedId = 0L;
+        this.processedCount = 0L;
+        this.startedAt = now;
+        this.updatedAt = now;
+    }
+
+    public void advance(Long lastProcessedId, int processed, LocalDateTime now) {
+        this.lastProcessedId = lastProcessedId;
+        this.processedCount += processed;
+        this.updatedAt = now;
+    }
+
+    public void complete(LocalDateTime now) {
+        this.status = RunStatus.COMPLETED;
+        this.updatedAt = now;
+    }
+
+    public enum RunStatus {
+        RUNNING, COMPLETED
+    }
+}
@@ -0,0 +1,143 @@
+package com.ddd.demo.entity.order;
+
+import com.ddd.demo.entity.user.User;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Read-only copy of a finished order moved out of the orders table by the archive job.
+// Columns mirror orders so rows are moved with INSERT ... SELECT; ids and order numbers are kept.
+@Entity
+@Immutable
+@Table(name = "orders_archive", indexes = {
+        @Index(name = "idx_archive_order_number", columnList = "orderNumber", unique = true),
+        @Index(name = "idx_archive_user_created_at", columnList = "user_id, createdAt"),
+        // Rollup rebuilds read the archive by creation range
+        @Index(name = "idx_archive_created_at", columnList = "createdAt")
+})
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 20)
+    private String orderNumber;
+
+    private LocalDate orderDate;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
+    @Builder.Default
+    private List<ArchivedOrderItem> orderItems = new ArrayList<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.OrderStatus status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Order.PaymentMethod paymentMethod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Order.PaymentStatus paymentStatus;
+
+    private LocalDateTime paymentDate;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal subtotal;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal discountAmount;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal taxAmount;
+
+    @Column(precision = 10, scale = 2)
+    private BigDecimal shippingFee;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal totalAmount;
+
+    @Embedded
+    private ShippingAddress shippingAddress;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Order.ShippingMethod shippingMethod;
+
+    private String trackingNumber;
+
+    private LocalDateTime shippedDate;
+    private LocalDateTime deliveredDate;
+
+    @Column(length = 500)
+    private String notes;
+
+    @Column(length = 50)
+    private String couponCode;
+
+    private LocalDateTime cancelledDate;
+
+    @Column(length = 500)
+    private String cancellationReason;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private Boolean isDeleted;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    // Detached Order with the same state, so archived orders are rendered like live ones
+    public Order toOrder() {
+        Order order = Order.builder()
+                .orderNumber(orderNumber)
+                .orderDate(orderDate)
+                .version(version)
+                .user(user)
+                .status(status)
+                .paymentMethod(paymentMethod)
+                .paymentStatus(paymentStatus)
+                .paymentDate(paymentDate)
+                .subtotal(subtotal)
+                .discountAmount(discountAmount)
+                .taxAmount(taxAmount)
+                .shippingFee(shippingFee)
+                .totalAmount(totalAmount)
+                .shippingAddress(shippingAddress)
+                .shippingMethod(shippingMethod)
+                .trackingNumber(trackingNumber)
+                .shippedDate(shippedDate)
+                .deliveredDate(deliveredDate)
+                .notes(notes)
+                .couponCode(couponCode)
+                .cancelledDate(cancelledDate)
+                .cancellationReason(cancellationReason)
+                .build();
+        order.setId(id);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(updatedAt);
+        order.setIsDeleted(isDeleted);
+        orderItems.forEach(item -> order.addOrderItem(item.toOrderItem()));
+        return order;
+    }
+}
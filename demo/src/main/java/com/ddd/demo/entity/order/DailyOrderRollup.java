@@ -0,0 +1,65 @@
+package com.ddd.demo.entity.order;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated order figures per day, order status, payment status, payment method and category.
+ * <p>
+ * Rows with {@link #ALL_CATEGORIES} hold order-level totals (order count and order total amount);
+ * all other rows hold line-level totals for one product category (item quantity and line amount),
+ * so an order that spans several categories is never counted twice.
+ */
+@Entity
+@Table(name = "daily_order_rollup", indexes = {
+        @Index(name = "idx_rollup_key",
+                columnList = "rollupDate, orderStatus, paymentStatus, paymentMethod, category", unique = true),
+        @Index(name = "idx_rollup_category_date", columnList = "category, rollupDate")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyOrderRollup {
+
+    public static final String ALL_CATEGORIES = "*";
+    public static final String UNCATEGORIZED = "UNCATEGORIZED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.OrderStatus orderStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.PaymentStatus paymentStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Order.PaymentMethod paymentMethod;
+
+    @Column(nullable = false, length = 100)
+    private String category;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long itemQuantity = 0L;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    @Builder.Default
+    private BigDecimal amount = BigDecimal.ZERO;
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,8 +14,12 @@ import java.util.List;
 @Entity
 @Table(name = "orders", indexes = {
         @Index(name = "idx_order_number", columnList = "orderNumber", unique = true),
-        @Index(name = "idx_user_id", columnList = "user_id"),
-        @Index(name = "idx_order_status", columnList = "status"),
+        // Composite indexes follow the list/search shapes: equality column first, then createdAt for range and sort
+        @Index(name = "idx_user_created_at", columnList = "user_id, createdAt"),
+        @Index(name = "idx_status_created_at", columnList = "status, createdAt"),
+        @Index(name = "idx_payment_status_created_at", columnList = "paymentStatus, createdAt"),
+        // Date-range summaries read the persisted day instead of DATE(createdAt), which no index can serve
+        @Index(name = "idx_order_date_payment_status", columnList = "orderDate, paymentStatus"),
         @Index(name = "idx_created_at", columnList = "createdAt")
 })
 @Getter
@@ -27,6 +32,16 @@ public class Order extends BaseEntity {
     @Column(nullable = false, unique = true, length = 20)
     private String orderNumber;
 
+    // Calendar day the order was placed, set once from createdAt
+    @Column(updatable = false)
+    private LocalDate orderDate;
+
+    // Optimistic lock: concurrent read-modify-write of the same order fails instead of losing an update.
+    // Left null until persisted so Spring Data still treats a new order as new and persists it
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Many orders belong to one user
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -99,6 +114,14 @@ public class Order extends BaseEntity {
     @Column(length = 500)
     private String cancellationReason;
 
+    // Runs after the auditing listener, so createdAt is already set
+    @PrePersist
+    void assignOrderDate() {
+        if (orderDate == null) {
+            orderDate = getCreatedAt() != null ? getCreatedAt().toLocalDate() : LocalDate.now();
+        }
+    }
+
     // Helper methods
     public void addOrderItem(OrderItem item) {
         orderItems.add(item);
@@ -52,6 +52,16 @@ public class Product extends BaseEntity {
     @Builder.Default
     private Set<OrderItem> orderItems = new HashSet<>();
 
+    // Set stock and keep the status in line with availability
+    public void updateStockQuantity(int quantity) {
+        this.stockQuantity = quantity;
+        if (quantity == 0) {
+            this.status = ProductStatus.OUT_OF_STOCK;
+        } else if (this.status == ProductStatus.OUT_OF_STOCK) {
+            this.status = ProductStatus.ACTIVE;
+        }
+    }
+
     public enum ProductStatus {
         ACTIVE, INACTIVE, OUT_OF_STOCK
     }
@@ -0,0 +1,15 @@
+package com.ddd.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the coupon service when a coupon is created, changed or deactivated,
+ * so the in-memory coupon index can be rebuilt once the change is committed.
+ */
+@Getter
+@AllArgsConstructor
+public class CouponChangedEvent {
+
+    private final String code;
+}
@@ -0,0 +1,25 @@
+package com.ddd.demo.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the order service whenever an order is created or mutated.
+ * Listeners that must only see committed state use {@code @TransactionalEventListener}.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderChangedEvent {
+
+    // Null when the order was just created
+    private final OrderSnapshot before;
+    private final OrderSnapshot after;
+
+    public Long getOrderId() {
+        return after.getOrderId();
+    }
+
+    public boolean isCreated() {
+        return before == null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.ddd.demo.event;
+
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.order.OrderItem;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Immutable copy of the order fields that listeners care about, taken inside the transaction
+ * so it can be read safely after commit.
+ */
+@Getter
+@Builder
+public class OrderSnapshot {
+
+    private final Long orderId;
+    private final String orderNumber;
+    private final Long userId;
+    private final Order.OrderStatus status;
+    private final Order.PaymentStatus paymentStatus;
+    private final Order.PaymentMethod paymentMethod;
+    private final String trackingNumber;
+    private final LocalDate orderDate;
+    private final BigDecimal totalAmount;
+    private final List<Line> lines;
+
+    public static OrderSnapshot of(Order order) {
+        return OrderSnapshot.builder()
+                .orderId(order.getId())
+                .orderNumber(order.getOrderNumber())
+                .userId(order.getUser().getId())
+                .status(order.getStatus())
+                .paymentStatus(order.getPaymentStatus())
+                .paymentMethod(order.getPaymentMethod())
+                .trackingNumber(order.getTrackingNumber())
+                .orderDate(order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : LocalDate.now())
+                .totalAmount(order.getTotalAmount())
+                .lines(order.getOrderItems().stream().map(Line::of).toList())
+                .build();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+        private final Long productId;
+        private final String category;
+        private final int quantity;
+        private final BigDecimal totalPrice;
+
+        static Line of(OrderItem item) {
+            return new Line(item.getProduct().getId(), item.getProduct().getCategory(),
+                    item.getQuantity(), item.getTotalPrice());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ddd.demo.repository;
+
+import com.ddd.demo.entity.coupon.Coupon;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CouponRepository extends JpaRepository<Coupon, Long> {
+
+    // Find by coupon code
+    Optional<Coupon> findByCode(String code);
+
+    boolean existsByCode(String code);
+
+    // Coupons that can still be redeemed; loaded into the in-memory index
+    List<Coupon> findByActiveTrueAndIsDeletedFalse();
+}
@@ -0,0 +1,88 @@
+package com.ddd.demo.repository;
+
+import com.ddd.demo.entity.order.DailyOrderRollup;
+import com.ddd.demo.entity.order.Order.OrderStatus;
+import com.ddd.demo.entity.order.Order.PaymentMethod;
+import com.ddd.demo.entity.order.Order.PaymentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyOrderRollupRepository extends JpaRepository<DailyOrderRollup, Long> {
+
+    // Add a delta to an existing rollup row; returns 0 when the row does not exist yet
+    @Modifying
+    @Query("UPDATE DailyOrderRollup r SET r.orderCount = r.orderCount + :orderCount, " +
+            "r.itemQuantity = r.itemQuantity + :itemQuantity, r.amount = r.amount + :amount " +
+            "WHERE r.rollupDate = :rollupDate AND r.orderStatus = :orderStatus " +
+            "AND r.paymentStatus = :paymentStatus AND r.paymentMethod = :paymentMethod AND r.category = :category")
+    int addToRollup(@Param("rollupDate") LocalDate rollupDate,
+                    @Param("orderStatus") OrderStatus orderStatus,
+                    @Param("paymentStatus") PaymentStatus paymentStatus,
+                    @Param("paymentMethod") PaymentMethod paymentMethod,
+                    @Param("category") String category,
+                    @Param("orderCount") long orderCount,
+                    @Param("itemQuantity") long itemQuantity,
+                    @Param("amount") BigDecimal amount);
+
+    // Remove rollup rows for a date range before rebuilding it
+    @Modifying
+    @Query("DELETE FROM DailyOrderRollup r WHERE r.rollupDate BETWEEN :startDate AND :endDate")
+    int deleteByRollupDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Get paid revenue by day
+    @Query("SELECT r.rollupDate, SUM(r.amount) FROM DailyOrderRollup r " +
+            "WHERE r.category = '*' AND r.paymentStatus = 'PAID' AND r.rollupDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.rollupDate ORDER BY r.rollupDate")
+    List<Object[]> getRevenueByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Get paid revenue and order count (all statuses) by day
+    @Query("SELECT r.rollupDate, SUM(CASE WHEN r.paymentStatus = 'PAID' THEN r.amount END), SUM(r.orderCount) " +
+            "FROM DailyOrderRollup r WHERE r.category = '*' AND r.rollupDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.rollupDate ORDER BY r.rollupDate")
+    List<Object[]> getDailyRevenueAndOrderCount(@Param("startDate") LocalDate startDate,
+                                                @Param("endDate") LocalDate endDate);
+
+    // Get total paid revenue for a date range
+    @Query("SELECT COALESCE(SUM(r.amount), 0) FROM DailyOrderRollup r " +
+            "WHERE r.category = '*' AND r.paymentStatus = 'PAID' AND r.rollupDate BETWEEN :startDate AND :endDate")
+    BigDecimal sumRevenueBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Get order count (all statuses) and paid revenue for a date range, archived orders included
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0), " +
+            "COALESCE(SUM(CASE WHEN r.paymentStatus = 'PAID' THEN r.amount END), 0) " +
+            "FROM DailyOrderRollup r WHERE r.category = '*' AND r.rollupDate BETWEEN :startDate AND :endDate")
+    List<Object[]> getOrderSummaryByDateRange(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    // Get paid order count and revenue over every day in the rollup
+    @Query("SELECT COALESCE(SUM(r.orderCount), 0), COALESCE(SUM(r.amount), 0) FROM DailyOrderRollup r " +
+            "WHERE r.category = '*' AND r.paymentStatus = 'PAID'")
+    List<Object[]> getPaidOrderSummary();
+
+    // Count orders by status over every day in the rollup; statuses whose deltas net to zero are left out
+    @Query("SELECT r.orderStatus, SUM(r.orderCount) FROM DailyOrderRollup r WHERE r.category = '*' " +
+            "GROUP BY r.orderStatus HAVING SUM(r.orderCount) > 0")
+    List<Object[]> countOrdersByStatus();
+
+    // Get paid revenue by payment method
+    @Query("SELECT r.paymentMethod, SUM(r.amount) FROM DailyOrderRollup r " +
+            "WHERE r.category = '*' AND r.paymentStatus = 'PAID' AND r.rollupDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.paymentMethod")
+    List<Object[]> getRevenueByPaymentMethod(@Param("startDate") LocalDate startDate,
+                                             @Param("endDate") LocalDate endDate);
+
+    // Get paid item quantity and revenue by category
+    @Query("SELECT r.category, SUM(r.itemQuantity), SUM(r.amount) FROM DailyOrderRollup r " +
+            "WHERE r.category <> '*' AND r.paymentStatus = 'PAID' AND r.rollupDate BETWEEN :startDate AND :endDate " +
+            "GROUP BY r.category")
+    List<Object[]> getCategorySalesByDateRange(@Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,30 @@
+package com.ddd.demo.repository;
+
+import com.ddd.demo.entity.email.EmailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Lock due messages and those whose dispatch lease ran out; rows locked by another dispatcher
+    // are skipped (lock timeout -2 = SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status IN ('PENDING', 'IN_PROGRESS') AND e.nextAttemptAt <= :now " +
+            "ORDER BY e.id")
+    List<EmailOutbox> findDueForDispatch(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Count messages by status
+    long countByStatus(EmailOutbox.OutboxStatus status);
+}
@@ -0,0 +1,109 @@
+package com.ddd.demo.repository;
+
+import com.ddd.demo.dto.order.OrderOwnership;
+import com.ddd.demo.entity.order.ArchivedOrder;
+import com.ddd.demo.entity.order.Order.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderArchiveRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    String ORDER_COLUMNS = "id, orderNumber, orderDate, version, user_id, status, paymentMethod, paymentStatus, paymentDate, " +
+            "subtotal, discountAmount, taxAmount, shippingFee, totalAmount, recipient_name, recipient_phone, " +
+            "street_address, ward, district, city, province, postal_code, country, shippingMethod, trackingNumber, " +
+            "shippedDate, deliveredDate, notes, couponCode, cancelledDate, cancellationReason, createdAt, updatedAt, " +
+            "isDeleted";
+
+    String ORDER_ITEM_COLUMNS = "id, order_id, product_id, quantity, unitPrice, discountAmount, totalPrice, notes, " +
+            "createdAt, updatedAt, isDeleted";
+
+    // Lookups that back the live-table reads once an order has been archived
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    Optional<ArchivedOrder> findWithDetailsById(Long id);
+
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    Optional<ArchivedOrder> findWithDetailsByOrderNumber(String orderNumber);
+
+    @Query("SELECT new com.ddd.demo.dto.order.OrderOwnership(o.id, o.user.id, o.status) FROM ArchivedOrder o WHERE o.id = :id")
+    Optional<OrderOwnership> findOwnershipById(@Param("id") Long id);
+
+    // User history, same shapes as the live OrderRepository queries; totals come from the count queries
+    @EntityGraph(attributePaths = "user")
+    Slice<ArchivedOrder> findWithUserByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    Slice<ArchivedOrder> findWithUserByUserIdAndStatus(Long userId, OrderStatus status, Pageable pageable);
+
+    long countByUserId(Long userId);
+
+    long countByUserIdAndStatus(Long userId, OrderStatus status);
+
+    @EntityGraph(attributePaths = "user")
+    Window<ArchivedOrder> findWithUserByUserIdOrderByCreatedAtDescIdDesc(Long userId, ScrollPosition position,
+                                                                         Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    Window<ArchivedOrder> findWithUserByUserIdAndStatusOrderByCreatedAtDescIdDesc(Long userId, OrderStatus status,
+                                                                                  ScrollPosition position, Limit limit);
+
+    // Same shapes as OrderRepository.aggregateOrdersForRollup / aggregateOrderItemsForRollup, so a rollup
+    // rebuild counts archived orders as well as live ones
+    @Query("SELECT o.orderDate, o.status, o.paymentStatus, o.paymentMethod, COUNT(o), SUM(o.totalAmount) " +
+            "FROM ArchivedOrder o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate " +
+            "AND o.paymentMethod IS NOT NULL " +
+            "GROUP BY o.orderDate, o.status, o.paymentStatus, o.paymentMethod")
+    List<Object[]> aggregateOrdersForRollup(@Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT o.orderDate, o.status, o.paymentStatus, o.paymentMethod, p.category, " +
+            "SUM(i.quantity), SUM(i.totalPrice) " +
+            "FROM ArchivedOrderItem i JOIN i.order o JOIN i.product p " +
+            "WHERE o.createdAt >= :startDate AND o.createdAt < :endDate AND o.paymentMethod IS NOT NULL " +
+            "GROUP BY o.orderDate, o.status, o.paymentStatus, o.paymentMethod, p.category")
+    List<Object[]> aggregateOrderItemsForRollup(@Param("startDate") LocalDateTime startDate,
+                                                @Param("endDate") LocalDateTime endDate);
+
+    // Fill orderDate on rows archived before the column existed; native because archived rows are immutable
+    @Modifying
+    @Query(value = "UPDATE orders_archive SET orderDate = CAST(createdAt AS DATE) " +
+            "WHERE orderDate IS NULL AND createdAt IS NOT NULL", nativeQuery = true)
+    int backfillOrderDates();
+
+    // Load items and their products for a page of archived orders in one statement
+    @Query("SELECT o FROM ArchivedOrder o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.product WHERE o.id IN :ids")
+    List<ArchivedOrder> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Move a chunk of orders: copy orders and items, then delete items before their orders
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (" + ORDER_COLUMNS + ", archivedAt) " +
+            "SELECT " + ORDER_COLUMNS + ", :archivedAt FROM orders WHERE id IN :ids", nativeQuery = true)
+    int copyOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_items_archive (" + ORDER_ITEM_COLUMNS + ") " +
+            "SELECT " + ORDER_ITEM_COLUMNS + " FROM order_items WHERE order_id IN :ids", nativeQuery = true)
+    int copyOrderItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_items WHERE order_id IN :ids", nativeQuery = true)
+    int deleteLiveOrderItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query(value = "DELETE FROM orders WHERE id IN :ids", nativeQuery = true)
+    int deleteLiveOrders(@Param("ids") Collection<Long> ids);
+}
@@ -1,23 +1,34 @@
 package com.ddd.demo.repository;
 
+import com.ddd.demo.dto.order.OrderOwnership;
 import com.ddd.demo.entity.order.Order;
 import com.ddd.demo.entity.order.Order.OrderStatus;
 import com.ddd.demo.entity.order.Order.PaymentStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
 
     // Find by order number
     Optional<Order> findByOrderNumber(String orderNumber);
@@ -31,15 +42,65 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     // Find orders by user and status
     Page<Order> findByUserIdAndStatus(Long userId, OrderStatus status, Pageable pageable);
 
-    // Find orders created between dates
-    @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :startDate AND :endDate")
+    // Read-path variants that load the user in the same statement as the page
+    @EntityGraph(attributePaths = "user")
+    Page<Order> findWithUserByUserId(Long userId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    Page<Order> findWithUserByUserIdAndStatus(Long userId, OrderStatus status, Pageable pageable);
+
+    // Admin search built from OrderSpecifications, with the user loaded in the same statement
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Page<Order> findAll(Specification<Order> spec, Pageable pageable);
+
+    // Keyset (seek) variants: newest first on (createdAt, id), no count query
+    @EntityGraph(attributePaths = "user")
+    Window<Order> findWithUserByUserIdOrderByCreatedAtDescIdDesc(Long userId, ScrollPosition position, Limit limit);
+
+    @EntityGraph(attributePaths = "user")
+    Window<Order> findWithUserByUserIdAndStatusOrderByCreatedAtDescIdDesc(Long userId, OrderStatus status,
+                                                                          ScrollPosition position, Limit limit);
+
+    // Load items and their products for a page of orders in one statement
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.orderItems i LEFT JOIN FETCH i.product WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Owner and status only, for access checks; reads the user_id column without joining users
+    @Query("SELECT new com.ddd.demo.dto.order.OrderOwnership(o.id, o.user.id, o.status) FROM Order o WHERE o.id = :id")
+    Optional<OrderOwnership> findOwnershipById(@Param("id") Long id);
+
+    // Load a single order with everything needed to render it
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    Optional<Order> findWithDetailsById(Long id);
+
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    Optional<Order> findWithDetailsByOrderNumber(String orderNumber);
+
+    // Find orders created from startDate up to but excluding endDate
+    @Query("SELECT o FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate")
     Page<Order> findOrdersBetweenDates(@Param("startDate") LocalDateTime startDate,
                                        @Param("endDate") LocalDateTime endDate,
                                        Pageable pageable);
 
-    // Find unpaid orders older than X days
-    @Query("SELECT o FROM Order o WHERE o.paymentStatus = 'UNPAID' AND o.createdAt < :date")
-    List<Order> findUnpaidOrdersOlderThan(@Param("date") LocalDateTime date);
+    // Next chunk of abandoned orders: pending, unpaid, not cash on delivery and created before the cutoff.
+    // Rows are locked so a payment arriving meanwhile waits for the expiry decision; its retry then
+    // sees the order CANCELLED and is rejected instead of paying for it.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id > :afterId AND o.status = 'PENDING' AND o.paymentStatus = 'UNPAID' " +
+            "AND o.paymentMethod <> 'CASH_ON_DELIVERY' AND o.createdAt < :cutoff ORDER BY o.id")
+    List<Order> findExpiredUnpaidOrders(@Param("cutoff") LocalDateTime cutoff,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    // Next chunk of finished orders (delivered, cancelled or refunded) created before the cutoff, for the archive job.
+    // Rows are locked so a late change waits and then finds the order gone instead of being lost.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.id > :afterId AND o.status IN ('DELIVERED', 'CANCELLED', 'REFUNDED') " +
+            "AND o.createdAt < :cutoff ORDER BY o.id")
+    List<Order> findArchivableOrders(@Param("cutoff") LocalDateTime cutoff,
+                                     @Param("afterId") Long afterId,
+                                     Pageable pageable);
 
     // Update order status
     @Modifying
@@ -57,12 +118,38 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COUNT(o), SUM(o.totalAmount), AVG(o.totalAmount) FROM Order o WHERE o.user.id = :userId AND o.status != 'CANCELLED'")
     List<Object[]> getOrderStatsByUser(@Param("userId") Long userId);
 
-    // Get revenue by date range
-    @Query("SELECT DATE(o.createdAt), SUM(o.totalAmount) FROM Order o " +
-            "WHERE o.paymentStatus = 'PAID' AND o.createdAt BETWEEN :startDate AND :endDate " +
-            "GROUP BY DATE(o.createdAt)")
-    List<Object[]> getRevenueByDateRange(@Param("startDate") LocalDateTime startDate,
-                                         @Param("endDate") LocalDateTime endDate);
+    // Fill orderDate on rows written before the column existed
+    @Modifying
+    @Query("UPDATE Order o SET o.orderDate = CAST(o.createdAt AS LocalDate) " +
+            "WHERE o.orderDate IS NULL AND o.createdAt IS NOT NULL")
+    int backfillOrderDates();
+
+    // Get order count and paid revenue for orders placed from startDate up to but excluding endDate,
+    // without loading the orders; a range seek on idx_order_date_payment_status
+    @Query("SELECT COUNT(o), COALESCE(SUM(CASE WHEN o.paymentStatus = 'PAID' THEN o.totalAmount END), 0) " +
+            "FROM Order o WHERE o.orderDate >= :startDate AND o.orderDate < :endDate")
+    List<Object[]> getOrderSummaryByDateRange(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
+
+    // Order-level totals per day and dimension, used to rebuild daily_order_rollup
+    @Query("SELECT o.orderDate, o.status, o.paymentStatus, o.paymentMethod, COUNT(o), SUM(o.totalAmount) " +
+            "FROM Order o WHERE o.createdAt >= :startDate AND o.createdAt < :endDate AND o.paymentMethod IS NOT NULL " +
+            "GROUP BY o.orderDate, o.status, o.paymentStatus, o.paymentMethod")
+    List<Object[]> aggregateOrdersForRollup(@Param("startDate") LocalDateTime startDate,
+                                            @Param("endDate") LocalDateTime endDate);
+
+    // Line-level totals per day, dimension and product category, used to rebuild daily_order_rollup
+    @Query("SELECT o.orderDate, o.status, o.paymentStatus, o.paymentMethod, p.category, " +
+            "SUM(i.quantity), SUM(i.totalPrice) " +
+            "FROM OrderItem i JOIN i.order o JOIN i.product p " +
+            "WHERE o.createdAt >= :startDate AND o.createdAt < :endDate AND o.paymentMethod IS NOT NULL " +
+            "GROUP BY o.orderDate, o.status, o.paymentStatus, o.paymentMethod, p.category")
+    List<Object[]> aggregateOrderItemsForRollup(@Param("startDate") LocalDateTime startDate,
+                                                @Param("endDate") LocalDateTime endDate);
+
+    // Load several orders with user, items and products in one statement
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product"})
+    List<Order> findWithDetailsByIdIn(Collection<Long> ids);
 
     // Find orders with total amount greater than
     @Query("SELECT o FROM Order o WHERE o.totalAmount > :amount ORDER BY o.totalAmount DESC")
@@ -72,7 +159,13 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o.status, COUNT(o) FROM Order o GROUP BY o.status")
     List<Object[]> countOrdersByStatus();
 
+    // Find shipped orders with a shipped date from start up to but excluding end
+    @Query("SELECT o FROM Order o WHERE o.status = 'SHIPPED' AND o.shippedDate >= :start AND o.shippedDate < :end")
+    List<Order> findShippedOrdersBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
     // Find orders to be delivered today
-    @Query("SELECT o FROM Order o WHERE o.status = 'SHIPPED' AND DATE(o.shippedDate) = CURRENT_DATE")
-    List<Order> findOrdersToBeDeliveredToday();
+    default List<Order> findOrdersToBeDeliveredToday() {
+        LocalDate today = LocalDate.now();
+        return findShippedOrdersBetween(today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package com.ddd.demo.repository;
+
+import com.ddd.demo.dto.order.OrderSearchRequest;
+import com.ddd.demo.entity.order.Order;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    /**
+     * Combines every criterion present in the search into one WHERE clause. Equality predicates
+     * come first and the date range is half-open on createdAt, so the query lines up with the
+     * (column, createdAt) composite indexes on orders.
+     */
+    public static Specification<Order> matching(OrderSearchRequest search) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (search.getUserId() != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), search.getUserId()));
+            }
+            if (search.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), search.getStatus()));
+            }
+            if (search.getPaymentStatus() != null) {
+                predicates.add(cb.equal(root.get("paymentStatus"), search.getPaymentStatus()));
+            }
+            if (search.getPaymentMethod() != null) {
+                predicates.add(cb.equal(root.get("paymentMethod"), search.getPaymentMethod()));
+            }
+            if (search.getStartDate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), search.getStartDate().atStartOfDay()));
+            }
+            if (search.getEndDate() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), search.getEndDate().plusDays(1).atStartOfDay()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
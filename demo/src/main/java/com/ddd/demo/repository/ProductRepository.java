@@ -1,20 +1,23 @@
 package com.ddd.demo.repository;
 
 import com.ddd.demo.entity.product.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     Optional<Product> findBySku(String sku);
 
@@ -34,6 +37,23 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity WHERE p.id = :productId AND p.stockQuantity >= :quantity")
     int decreaseStock(@Param("productId") Long productId, @Param("quantity") Integer quantity);
 
+    // Stock of products that can be reserved: the same filter reserveStock applies
+    @Query("SELECT p.id, p.stockQuantity FROM Product p WHERE p.isDeleted = false AND p.status <> 'INACTIVE'")
+    List<Object[]> findAllStockLevels();
+
+    @Query("SELECT p.stockQuantity FROM Product p " +
+            "WHERE p.id = :productId AND p.isDeleted = false AND p.status <> 'INACTIVE'")
+    Optional<Integer> findStockQuantityById(@Param("productId") Long productId);
+
+    // SKUs of the given products, for evicting the SKU-keyed cache entries along with the id-keyed ones
+    @Query("SELECT p.sku FROM Product p WHERE p.id IN :productIds AND p.sku IS NOT NULL")
+    List<String> findSkusByIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Lock the row so concurrent absolute stock updates of one product apply one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id = :productId")
+    Optional<Product> findByIdForUpdate(@Param("productId") Long productId);
+
     @Query("SELECT p FROM Product p WHERE p.stockQuantity < :threshold AND p.status = 'ACTIVE'")
     List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
 
@@ -0,0 +1,19 @@
+package com.ddd.demo.repository;
+
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    // Reserve stock for several products in one conditional UPDATE.
+    // Returns the number of products whose stock was reserved; a product that is missing, deleted,
+    // inactive or short on stock is left untouched and is not counted.
+    int reserveStock(Map<Long, Integer> quantities);
+
+    // Apply net stock decrements (negative values restore stock) to several products in one UPDATE,
+    // keeping the OUT_OF_STOCK status in line with the resulting quantity
+    int applyStockDeltas(Map<Long, Integer> decrements);
+
+    // Atomically add stock back to several products in one UPDATE and reactivate those that were OUT_OF_STOCK.
+    // Returns the number of products updated.
+    int restoreStock(Map<Long, Integer> quantities);
+}
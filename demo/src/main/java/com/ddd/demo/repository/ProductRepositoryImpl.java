@@ -0,0 +1,134 @@
+package com.ddd.demo.repository;
+
+import com.ddd.demo.entity.product.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Builds a single UPDATE that decrements every line and flips the status of lines that
+     * reach zero, e.g. for two products:
+     * <pre>
+     * UPDATE Product p SET
+     *   p.status = CASE WHEN p.id = :id0 AND p.stockQuantity = :q0 THEN :outOfStock ... ELSE p.status END,
+     *   p.stockQuantity = p.stockQuantity - CASE p.id WHEN :id0 THEN :q0 ... ELSE 0 END
+     * WHERE p.isDeleted = false AND p.status <> :inactive
+     *   AND ((p.id = :id0 AND p.stockQuantity >= :q0) OR (...))
+     * </pre>
+     * The status assignment comes first so that it sees the pre-update stock on databases
+     * that evaluate SET clauses left to right (MySQL).
+     */
+    @Override
+    public int reserveStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        StringBuilder status = new StringBuilder("p.status = CASE");
+        StringBuilder stock = new StringBuilder("p.stockQuantity = p.stockQuantity - CASE p.id");
+        StringBuilder where = new StringBuilder();
+
+        for (int i = 0; i < ids.size(); i++) {
+            status.append(" WHEN p.id = :id").append(i).append(" AND p.stockQuantity = :q").append(i)
+                    .append(" THEN :outOfStock");
+            stock.append(" WHEN :id").append(i).append(" THEN :q").append(i);
+            if (i > 0) {
+                where.append(" OR ");
+            }
+            where.append("(p.id = :id").append(i).append(" AND p.stockQuantity >= :q").append(i).append(")");
+        }
+        status.append(" ELSE p.status END");
+        stock.append(" ELSE 0 END");
+
+        Query query = entityManager.createQuery(
+                "UPDATE Product p SET " + status + ", " + stock
+                        + " WHERE p.isDeleted = false AND p.status <> :inactive AND (" + where + ")");
+        for (int i = 0; i < ids.size(); i++) {
+            query.setParameter("id" + i, ids.get(i));
+            query.setParameter("q" + i, quantities.get(ids.get(i)));
+        }
+        query.setParameter("outOfStock", Product.ProductStatus.OUT_OF_STOCK);
+        query.setParameter("inactive", Product.ProductStatus.INACTIVE);
+
+        return query.executeUpdate();
+    }
+
+    @Override
+    public int applyStockDeltas(Map<Long, Integer> decrements) {
+        if (decrements.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(decrements.keySet());
+        StringBuilder status = new StringBuilder("p.status = CASE");
+        StringBuilder stock = new StringBuilder("p.stockQuantity = p.stockQuantity - CASE p.id");
+
+        for (int i = 0; i < ids.size(); i++) {
+            status.append(" WHEN p.id = :id").append(i).append(" AND p.stockQuantity - :d").append(i)
+                    .append(" <= 0 AND p.status <> :inactive THEN :outOfStock")
+                    .append(" WHEN p.id = :id").append(i).append(" AND p.status = :outOfStock THEN :active");
+            stock.append(" WHEN :id").append(i).append(" THEN :d").append(i);
+        }
+        status.append(" ELSE p.status END");
+        stock.append(" ELSE 0 END");
+
+        Query query = entityManager.createQuery(
+                "UPDATE Product p SET " + status + ", " + stock + " WHERE p.id IN :ids");
+        for (int i = 0; i < ids.size(); i++) {
+            query.setParameter("id" + i, ids.get(i));
+            query.setParameter("d" + i, decrements.get(ids.get(i)));
+        }
+        query.setParameter("ids", ids);
+        query.setParameter("outOfStock", Product.ProductStatus.OUT_OF_STOCK);
+        query.setParameter("active", Product.ProductStatus.ACTIVE);
+        query.setParameter("inactive", Product.ProductStatus.INACTIVE);
+
+        return query.executeUpdate();
+    }
+
+    /**
+     * Relative increment, so it never overwrites units reserved by concurrent orders:
+     * <pre>
+     * UPDATE Product p SET
+     *   p.status = CASE WHEN p.status = :outOfStock THEN :active ELSE p.status END,
+     *   p.stockQuantity = p.stockQuantity + CASE p.id WHEN :id0 THEN :q0 ... ELSE 0 END
+     * WHERE p.id IN :ids
+     * </pre>
+     */
+    @Override
+    public int restoreStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        StringBuilder stock = new StringBuilder("p.stockQuantity = p.stockQuantity + CASE p.id");
+        for (int i = 0; i < ids.size(); i++) {
+            stock.append(" WHEN :id").append(i).append(" THEN :q").append(i);
+        }
+        stock.append(" ELSE 0 END");
+
+        Query query = entityManager.createQuery("UPDATE Product p SET "
+                + "p.status = CASE WHEN p.status = :outOfStock THEN :active ELSE p.status END, "
+                + stock + " WHERE p.id IN :ids");
+        for (int i = 0; i < ids.size(); i++) {
+            query.setParameter("id" + i, ids.get(i));
+            query.setParameter("q" + i, quantities.get(ids.get(i)));
+        }
+        query.setParameter("ids", ids);
+        query.setParameter("outOfStock", Product.ProductStatus.OUT_OF_STOCK);
+        query.setParameter("active", Product.ProductStatus.ACTIVE);
+
+        return query.executeUpdate();
+    }
+}
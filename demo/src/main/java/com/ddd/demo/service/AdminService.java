@@ -38,4 +38,7 @@ public interface AdminService {
 
     // Get system health
     Map<String, Object> getSystemHealth();
+
+    // Rebuild the daily order rollup for a date range
+    int rebuildOrderRollup(LocalDate startDate, LocalDate endDate);
 }
\ No newline at end of file
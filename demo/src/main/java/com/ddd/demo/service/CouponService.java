@@ -0,0 +1,36 @@
+package com.ddd.demo.service;
+
+import com.ddd.demo.dto.coupon.CouponRequest;
+import com.ddd.demo.dto.coupon.CouponResponse;
+import com.ddd.demo.entity.order.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface CouponService {
+
+    // Create coupon (Admin)
+    CouponResponse createCoupon(CouponRequest request);
+
+    // Update coupon terms (Admin)
+    CouponResponse updateCoupon(Long id, CouponRequest request);
+
+    // Deactivate coupon (Admin)
+    void deactivateCoupon(Long id);
+
+    // Get coupon by ID (Admin)
+    CouponResponse getCouponById(Long id);
+
+    // Get all coupons (Admin)
+    List<CouponResponse> getAllCoupons();
+
+    // Discount the coupon would give on these items, without redeeming it
+    BigDecimal calculateDiscount(String code, BigDecimal subtotal, List<OrderItem> items);
+
+    // Validate the coupon for this order, count one redemption for the user and return the discount.
+    // The redemption is given back automatically if the surrounding transaction rolls back.
+    BigDecimal redeem(String code, Long userId, BigDecimal subtotal, List<OrderItem> items);
+
+    // Give back a redemption once the surrounding transaction commits, e.g. when an order is cancelled
+    void release(String code, Long userId);
+}
@@ -0,0 +1,12 @@
+package com.ddd.demo.service;
+
+import java.util.Map;
+
+public interface EmailOutboxService {
+
+    // Queue a templated email in the caller's transaction
+    void enqueue(String to, String subject, String templateName, Map<String, Object> variables);
+
+    // Deliver due messages in batches; returns the number of messages sent
+    int dispatchPending();
+}
@@ -19,6 +19,9 @@ public interface EmailService {
     // Send templated email
     void sendTemplatedEmail(String to, String subject, String templateName, Map<String, Object> variables);
 
+    // Render and send a templated email on the calling thread, throwing if delivery fails
+    void deliverTemplatedEmail(String to, String subject, String templateName, Map<String, Object> variables);
+
     // Send bulk emails
     void sendBulkEmails(EmailRequest emailRequest);
 
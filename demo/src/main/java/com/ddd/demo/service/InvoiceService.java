@@ -0,0 +1,9 @@
+package com.ddd.demo.service;
+
+import com.ddd.demo.service.invoice.Invoice;
+
+public interface InvoiceService {
+
+    // Get the PDF invoice of an order; invoices of delivered and cancelled orders come from the disk cache
+    Invoice getInvoice(Long orderId);
+}
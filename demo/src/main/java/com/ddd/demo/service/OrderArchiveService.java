@@ -0,0 +1,7 @@
+package com.ddd.demo.service;
+
+public interface OrderArchiveService {
+
+    // Move finished orders older than the configured age to the archive tables in chunks, returns the number moved
+    int archiveOrders();
+}
@@ -0,0 +1,7 @@
+package com.ddd.demo.service;
+
+public interface OrderExpiryService {
+
+    // Cancel unpaid orders older than the configured TTL in chunks and release their stock, returns the number expired
+    int expireUnpaidOrders();
+}
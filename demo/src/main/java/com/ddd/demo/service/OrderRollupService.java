@@ -0,0 +1,17 @@
+package com.ddd.demo.service;
+
+import com.ddd.demo.event.OrderChangedEvent;
+
+import java.time.LocalDate;
+
+public interface OrderRollupService {
+
+    // Apply the difference between the previous and current order state to the daily rollup
+    void onOrderChanged(OrderChangedEvent event);
+
+    // Recompute the daily rollup for a date range (inclusive) from the live and archived orders
+    int rebuild(LocalDate startDate, LocalDate endDate);
+
+    // Rebuild the most recent days to correct any drift from missed events
+    void reconcileRecentDays();
+}
@@ -1,11 +1,19 @@
 package com.ddd.demo.service;
 
+import com.ddd.demo.dto.order.OrderBatchStatusUpdateRequest;
+import com.ddd.demo.dto.order.OrderBatchStatusUpdateResponse;
+import com.ddd.demo.dto.order.OrderQuoteRequest;
+import com.ddd.demo.dto.order.OrderQuoteResponse;
 import com.ddd.demo.dto.order.OrderRequest;
 import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.OrderSearchRequest;
+import com.ddd.demo.dto.order.OrderStatusEvent;
 import com.ddd.demo.dto.order.OrderStatusUpdateRequest;
 import com.ddd.demo.entity.order.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -16,21 +24,36 @@ public interface OrderService {
     // Create new order
     OrderResponse createOrder(Long userId, OrderRequest request);
 
+    // Create an order under a number reserved beforehand, e.g. when the request was accepted asynchronously
+    OrderResponse createOrder(Long userId, OrderRequest request, String orderNumber);
+
     // Get order by ID
     OrderResponse getOrderById(Long id);
 
     // Get order by order number
     OrderResponse getOrderByNumber(String orderNumber);
 
+    // Get the committed status, payment status and tracking number, bypassing the order cache
+    OrderStatusEvent getOrderStatus(Long id);
+
     // Get user orders
     Page<OrderResponse> getUserOrders(Long userId, Order.OrderStatus status, Pageable pageable);
 
     // Get all orders (Admin)
-    Page<OrderResponse> getAllOrders(Order.OrderStatus status, LocalDate startDate, LocalDate endDate, Pageable pageable);
+    Page<OrderResponse> getAllOrders(OrderSearchRequest search, Pageable pageable);
+
+    // Get user orders after a keyset position, newest first
+    Window<OrderResponse> getUserOrders(Long userId, Order.OrderStatus status, ScrollPosition position, int size);
+
+    // Get all orders after a keyset position, newest first (Admin)
+    Window<OrderResponse> getAllOrders(OrderSearchRequest search, ScrollPosition position, int size);
 
     // Update order status
     OrderResponse updateOrderStatus(Long id, OrderStatusUpdateRequest request);
 
+    // Update the status of many orders at once, reporting the outcome per order
+    OrderBatchStatusUpdateResponse updateOrderStatuses(OrderBatchStatusUpdateRequest request);
+
     // Cancel order
     void cancelOrder(Long id, String reason);
 
@@ -49,8 +72,6 @@ public interface OrderService {
     // Get order statistics
     Map<String, Object> getOrderStatistics(LocalDate startDate, LocalDate endDate);
 
-    // Generate invoice
-    byte[] generateInvoice(Long orderId);
 
     // Process payment
     void processPayment(Long orderId, String paymentToken);
@@ -58,6 +79,6 @@ public interface OrderService {
     // Calculate shipping fee
     BigDecimal calculateShippingFee(OrderRequest request);
 
-    // Apply coupon
-    BigDecimal applyCoupon(String couponCode, BigDecimal subtotal);
+    // Price a cart exactly as createOrder would, without reserving stock, redeeming the coupon or writing anything
+    OrderQuoteResponse quoteOrder(OrderQuoteRequest request);
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
 
@@ -45,6 +46,12 @@ public interface ProductService {
     // Decrease stock (for orders)
     void decreaseStock(Long productId, Integer quantity);
 
+    // Reserve stock for all lines of an order at once (all-or-nothing)
+    void reserveStock(Map<Long, Integer> quantities);
+
+    // Put reserved stock back for several products at once, e.g. when orders are cancelled
+    void releaseStock(Map<Long, Integer> quantities);
+
     // Get low stock products
     List<ProductResponse> getLowStockProducts(Integer threshold);
 
@@ -0,0 +1,56 @@
+package com.ddd.demo.service.coupon;
+
+import com.ddd.demo.event.CouponChangedEvent;
+import com.ddd.demo.repository.CouponRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Active coupons held in memory, keyed by code. Readers see an immutable snapshot that is swapped
+ * as a whole on refresh, so lookups during checkout need neither locks nor a database round trip.
+ * The snapshot is rebuilt after every committed coupon change on this node, and periodically to
+ * pick up changes made through other nodes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponIndex {
+
+    private final CouponRepository couponRepository;
+
+    private volatile Map<String, CouponRule> rules = Map.of();
+
+    public Optional<CouponRule> find(String code) {
+        return Optional.ofNullable(rules.get(code));
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.coupon.refresh-interval-ms:60000}",
+            initialDelayString = "${app.coupon.refresh-interval-ms:60000}")
+    public void refresh() {
+        rules = couponRepository.findByActiveTrueAndIsDeletedFalse().stream()
+                .map(CouponRule::of)
+                .collect(Collectors.toUnmodifiableMap(CouponRule::code, Function.identity()));
+        log.debug("Coupon index refreshed with {} active coupons", rules.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCouponChanged(CouponChangedEvent event) {
+        refresh();
+    }
+}
@@ -0,0 +1,66 @@
+package com.ddd.demo.service.coupon;
+
+import com.ddd.demo.entity.coupon.Coupon;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a coupon's terms as held by {@link CouponIndex}, so checkout can evaluate a
+ * coupon without touching the database or a managed entity.
+ */
+public record CouponRule(
+        String code,
+        Coupon.DiscountType discountType,
+        BigDecimal discountValue,
+        BigDecimal maxDiscountAmount,
+        BigDecimal minOrderAmount,
+        String category,
+        Integer usageLimit,
+        Integer perUserLimit,
+        LocalDateTime startsAt,
+        LocalDateTime expiresAt) {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    public static CouponRule of(Coupon coupon) {
+        return new CouponRule(
+                coupon.getCode(),
+                coupon.getDiscountType(),
+                coupon.getDiscountValue(),
+                coupon.getMaxDiscountAmount(),
+                coupon.getMinOrderAmount(),
+                coupon.getCategory(),
+                coupon.getUsageLimit(),
+                coupon.getPerUserLimit(),
+                coupon.getStartsAt(),
+                coupon.getExpiresAt());
+    }
+
+    public boolean isValidAt(LocalDateTime time) {
+        return (startsAt == null || !time.isBefore(startsAt)) && (expiresAt == null || time.isBefore(expiresAt));
+    }
+
+    public boolean meetsMinimum(BigDecimal subtotal) {
+        return minOrderAmount == null || subtotal.compareTo(minOrderAmount) >= 0;
+    }
+
+    public boolean isCategoryLimited() {
+        return category != null;
+    }
+
+    // Discount on the eligible part of the order, never more than that part itself
+    public BigDecimal discountFor(BigDecimal eligibleSubtotal) {
+        BigDecimal discount;
+        if (discountType == Coupon.DiscountType.PERCENT) {
+            discount = eligibleSubtotal.multiply(discountValue).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            if (maxDiscountAmount != null) {
+                discount = discount.min(maxDiscountAmount);
+            }
+        } else {
+            discount = discountValue;
+        }
+        return discount.min(eligibleSubtotal).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ddd.demo.service.coupon;
+
+/**
+ * Shared redemption counters. Each redemption checks and bumps the total and the per-user
+ * count in one atomic step, so limits hold when several nodes check out the same coupon at once.
+ */
+public interface CouponUsageStore {
+
+    // Limits may be null for unlimited
+    Redemption redeem(String code, Long userId, Integer usageLimit, Integer perUserLimit);
+
+    // Give back a redemption, e.g. when the order is rolled back or cancelled
+    void release(String code, Long userId);
+
+    long getUsage(String code);
+
+    enum Redemption {
+        REDEEMED, USAGE_LIMIT_REACHED, USER_LIMIT_REACHED
+    }
+}
@@ -0,0 +1,41 @@
+package com.ddd.demo.service.coupon;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Single-node stand-in for the Redis store, for local runs and tests
+@Component
+@ConditionalOnProperty(name = "app.coupon.usage-store", havingValue = "memory")
+public class InMemoryCouponUsageStore implements CouponUsageStore {
+
+    private final Map<String, Long> totals = new HashMap<>();
+    private final Map<String, Long> perUser = new HashMap<>();
+
+    @Override
+    public synchronized Redemption redeem(String code, Long userId, Integer usageLimit, Integer perUserLimit) {
+        String userKey = code + ":" + userId;
+        if (usageLimit != null && totals.getOrDefault(code, 0L) >= usageLimit) {
+            return Redemption.USAGE_LIMIT_REACHED;
+        }
+        if (perUserLimit != null && perUser.getOrDefault(userKey, 0L) >= perUserLimit) {
+            return Redemption.USER_LIMIT_REACHED;
+        }
+        totals.merge(code, 1L, Long::sum);
+        perUser.merge(userKey, 1L, Long::sum);
+        return Redemption.REDEEMED;
+    }
+
+    @Override
+    public synchronized void release(String code, Long userId) {
+        totals.computeIfPresent(code, (key, count) -> count > 1 ? count - 1 : null);
+        perUser.computeIfPresent(code + ":" + userId, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    @Override
+    public synchronized long getUsage(String code) {
+        return totals.getOrDefault(code, 0L);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ddd.demo.service.coupon;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.coupon.usage-store", havingValue = "redis", matchIfMissing = true)
+public class RedisCouponUsageStore implements CouponUsageStore {
+
+    private static final String KEY_PREFIX = "coupon:usage:";
+    private static final String UNLIMITED = "-1";
+
+    // Check both limits and bump both counters in one step; returns 1 redeemed, 0 usage limit, -1 user limit
+    private static final DefaultRedisScript<Long> REDEEM = new DefaultRedisScript<>("""
+            local total = tonumber(redis.call('GET', KEYS[1]) or '0')
+            local mine = tonumber(redis.call('GET', KEYS[2]) or '0')
+            if ARGV[1] ~= '-1' and total >= tonumber(ARGV[1]) then return 0 end
+            if ARGV[2] ~= '-1' and mine >= tonumber(ARGV[2]) then return -1 end
+            redis.call('INCR', KEYS[1])
+            redis.call('INCR', KEYS[2])
+            return 1
+            """, Long.class);
+
+    private static final DefaultRedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+            for i = 1, 2 do
+              if tonumber(redis.call('GET', KEYS[i]) or '0') > 0 then redis.call('DECR', KEYS[i]) end
+            end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public Redemption redeem(String code, Long userId, Integer usageLimit, Integer perUserLimit) {
+        Long result = redisTemplate.execute(REDEEM, keys(code, userId), limit(usageLimit), limit(perUserLimit));
+        if (result == null || result == 0) {
+            return Redemption.USAGE_LIMIT_REACHED;
+        }
+        return result > 0 ? Redemption.REDEEMED : Redemption.USER_LIMIT_REACHED;
+    }
+
+    @Override
+    public void release(String code, Long userId) {
+        redisTemplate.execute(RELEASE, keys(code, userId));
+    }
+
+    @Override
+    public long getUsage(String code) {
+        String value = redisTemplate.opsForValue().get(KEY_PREFIX + code);
+        return value == null ? 0 : Long.parseLong(value);
+    }
+
+    private List<String> keys(String code, Long userId) {
+        return List.of(KEY_PREFIX + code, KEY_PREFIX + code + ":user:" + userId);
+    }
+
+    private String limit(Integer limit) {
+        return limit == null ? UNLIMITED : limit.toString();
+    }
+}
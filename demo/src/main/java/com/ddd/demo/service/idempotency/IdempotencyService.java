@@ -0,0 +1,187 @@
+package com.ddd.demo.service.idempotency;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.common.exception.ConflictException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key.
+ * <p>
+ * The first request reserves the key in the {@link IdempotencyStore} and stores its response for
+ * {@code app.idempotency.ttl}; retries get that response back without running the action again.
+ * Duplicates that arrive while the first request is still running wait for its result: on the same
+ * instance through a shared future, on other instances by polling the store (and running the action
+ * themselves if the first request fails and releases the key).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long REMOTE_POLL_INTERVAL_MS = 50;
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    // How long a reservation lives without a result, and how long duplicates wait for it
+    @Value("${app.idempotency.in-flight-timeout:30s}")
+    private Duration inFlightTimeout;
+
+    public <T> IdempotentResult<T> execute(String scope, String idempotencyKey, Object request,
+                                           Class<T> responseType, Supplier<T> action) {
+        validateKey(idempotencyKey);
+        String key = KEY_PREFIX + scope + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        CompletableFuture<String> execution = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            return replay(awaitLocal(running), fingerprint, responseType);
+        }
+
+        try {
+            Optional<String> stored = findOrReserve(key);
+            if (stored.isEmpty()) {
+                T response = runReserved(key, action);
+                String record = toJson(new StoredResponse(fingerprint, toJson(response)));
+                storeResult(key, record);
+                execution.complete(record);
+                return new IdempotentResult<>(response, false);
+            }
+
+            execution.complete(stored.get());
+            return replay(stored.get(), fingerprint, responseType);
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    private <T> T runReserved(String key, Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            // Failed requests are not remembered, so the client may retry with the same key
+            store.release(key);
+            throw e;
+        }
+    }
+
+    private void storeResult(String key, String record) {
+        try {
+            store.complete(key, record, ttl);
+        } catch (RuntimeException e) {
+            log.error("Failed to store idempotent response for key {}", key, e);
+        }
+    }
+
+    private String awaitLocal(CompletableFuture<String> running) {
+        try {
+            return running.get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for the original request");
+        }
+    }
+
+    // Stored record for the key, or empty once this request holds the reservation. While another
+    // instance holds it, keep polling; if that holder fails and releases the key, take it over
+    private Optional<String> findOrReserve(String key) {
+        long deadline = System.currentTimeMillis() + inFlightTimeout.toMillis();
+        while (true) {
+            Optional<String> stored = store.find(key);
+            if (stored.isPresent()) {
+                return stored;
+            }
+            if (store.reserve(key, inFlightTimeout)) {
+                return Optional.empty();
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                break;
+            }
+            try {
+                Thread.sleep(REMOTE_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new ConflictException("A request with this Idempotency-Key is still being processed");
+    }
+
+    private <T> IdempotentResult<T> replay(String record, String fingerprint, Class<T> responseType) {
+        StoredResponse stored = fromJson(record, StoredResponse.class);
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new BusinessException("Idempotency-Key was already used for a different request");
+        }
+        return new IdempotentResult<>(fromJson(stored.response(), responseType), true);
+    }
+
+    private void validateKey(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read idempotent response", e);
+        }
+    }
+
+    private record StoredResponse(String fingerprint, String response) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.ddd.demo.service.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Key-value storage for idempotent request results, shared by all instances when backed by Redis.
+ */
+public interface IdempotencyStore {
+
+    // Claim a key before running the request; false if another request already holds or completed it
+    boolean reserve(String key, Duration ttl);
+
+    // Stored record for the key, empty while the request is still in flight or after expiry
+    Optional<String> find(String key);
+
+    // Store the completed record, replacing the reservation
+    void complete(String key, String record, Duration ttl);
+
+    // Drop a reservation after the request failed so the client can retry
+    void release(String key);
+}
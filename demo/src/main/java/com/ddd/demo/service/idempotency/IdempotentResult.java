@@ -0,0 +1,7 @@
+package com.ddd.demo.service.idempotency;
+
+/**
+ * Response of an idempotent request, flagged when it was served from a previous execution.
+ */
+public record IdempotentResult<T>(T response, boolean replayed) {
+}
@@ -0,0 +1,62 @@
+package com.ddd.demo.service.idempotency;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node stand-in for {@link RedisIdempotencyStore}, used for local runs and tests.
+ */
+@Component
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "memory")
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean reserve(String key, Duration ttl) {
+        Entry reservation = new Entry(null, expiresAt(ttl));
+        Entry existing = entries.merge(key, reservation,
+                (current, candidate) -> current.isExpired() ? candidate : current);
+        return existing == reservation;
+    }
+
+    @Override
+    public Optional<String> find(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.isExpired()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entry.record());
+    }
+
+    @Override
+    public void complete(String key, String record, Duration ttl) {
+        entries.put(key, new Entry(record, expiresAt(ttl)));
+    }
+
+    @Override
+    public void release(String key) {
+        entries.remove(key);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpired() {
+        entries.values().removeIf(Entry::isExpired);
+    }
+
+    private long expiresAt(Duration ttl) {
+        return System.currentTimeMillis() + ttl.toMillis();
+    }
+
+    private record Entry(String record, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
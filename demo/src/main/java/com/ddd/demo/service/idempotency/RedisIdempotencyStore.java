@@ -0,0 +1,43 @@
+package com.ddd.demo.service.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.idempotency.store", havingValue = "redis", matchIfMissing = true)
+public class RedisIdempotencyStore implements IdempotencyStore {
+
+    private static final String IN_FLIGHT = "IN_FLIGHT";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Override
+    public boolean reserve(String key, Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, IN_FLIGHT, ttl));
+    }
+
+    @Override
+    public Optional<String> find(String key) {
+        Object value = redisTemplate.opsForValue().get(key);
+        if (value == null || IN_FLIGHT.equals(value)) {
+            return Optional.empty();
+        }
+        return Optional.of(value.toString());
+    }
+
+    @Override
+    public void complete(String key, String record, Duration ttl) {
+        redisTemplate.opsForValue().set(key, record, ttl);
+    }
+
+    @Override
+    public void release(String key) {
+        redisTemplate.delete(key);
+    }
+}
@@ -2,12 +2,13 @@ package com.ddd.demo.service.impl;
 
 import com.ddd.demo.dto.admin.*;
 import com.ddd.demo.entity.order.Order;
-import com.ddd.demo.entity.order.OrderItem;
 import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.repository.DailyOrderRollupRepository;
 import com.ddd.demo.repository.OrderRepository;
 import com.ddd.demo.repository.ProductRepository;
 import com.ddd.demo.repository.UserRepository;
 import com.ddd.demo.service.AdminService;
+import com.ddd.demo.service.OrderRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
@@ -28,6 +29,7 @@ import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.OperatingSystemMXBean;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
@@ -40,6 +42,8 @@ import java.util.stream.Collectors;
 public class AdminServiceImpl implements AdminService {
 
     private final OrderRepository orderRepository;
+    private final DailyOrderRollupRepository rollupRepository;
+    private final OrderRollupService orderRollupService;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final CacheManager cacheManager;
@@ -188,34 +192,40 @@ public class AdminServiceImpl implements AdminService {
         return health;
     }
 
+    @Override
+    @Transactional
+    public int rebuildOrderRollup(LocalDate startDate, LocalDate endDate) {
+        int rows = orderRollupService.rebuild(startDate, endDate);
+        log.info("Order rollup rebuild requested for {} - {}", startDate, endDate);
+        return rows;
+    }
+
     // Helper methods for dashboard data
     private DashboardResponse.OverviewStats getOverviewStats(LocalDateTime start, LocalDateTime end) {
-        // Calculate current period stats
-        List<Order> currentOrders = orderRepository.findOrdersBetweenDates(start, end, Pageable.unpaged()).getContent();
-        BigDecimal currentRevenue = currentOrders.stream()
-                .filter(o -> o.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Calculate previous period stats for growth comparison
-        LocalDateTime prevStart = start.minusDays(end.toLocalDate().toEpochDay() - start.toLocalDate().toEpochDay());
-        LocalDateTime prevEnd = start.minusSeconds(1);
-        List<Order> prevOrders = orderRepository.findOrdersBetweenDates(prevStart, prevEnd, Pageable.unpaged()).getContent();
-        BigDecimal prevRevenue = prevOrders.stream()
-                .filter(o -> o.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Calculate current period stats over whole days from the rollup, which also counts archived orders
+        LocalDate firstDay = start.toLocalDate();
+        LocalDate lastDay = end.toLocalDate();
+        Object[] current = rollupRepository.getOrderSummaryByDateRange(firstDay, lastDay).get(0);
+        long currentOrderCount = ((Number) current[0]).longValue();
+        BigDecimal currentRevenue = new BigDecimal(current[1].toString());
+
+        // Calculate previous period stats for growth comparison: the same number of days just before
+        long days = lastDay.toEpochDay() - firstDay.toEpochDay() + 1;
+        Object[] previous = rollupRepository
+                .getOrderSummaryByDateRange(firstDay.minusDays(days), firstDay.minusDays(1)).get(0);
+        long prevOrderCount = ((Number) previous[0]).longValue();
+        BigDecimal prevRevenue = new BigDecimal(previous[1].toString());
 
         // Calculate growth percentages
         BigDecimal revenueGrowth = calculateGrowth(prevRevenue, currentRevenue);
         BigDecimal orderGrowth = calculateGrowth(
-                BigDecimal.valueOf(prevOrders.size()),
-                BigDecimal.valueOf(currentOrders.size())
+                BigDecimal.valueOf(prevOrderCount),
+                BigDecimal.valueOf(currentOrderCount)
         );
 
         return DashboardResponse.OverviewStats.builder()
                 .totalRevenue(currentRevenue)
-                .totalOrders((long) currentOrders.size())
+                .totalOrders(currentOrderCount)
                 .totalUsers(userRepository.count())
                 .totalProducts(productRepository.count())
                 .revenueGrowth(revenueGrowth)
@@ -225,36 +235,23 @@ public class AdminServiceImpl implements AdminService {
     }
 
     private DashboardResponse.RevenueStats getRevenueStats(LocalDateTime start, LocalDateTime end) {
-        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = LocalDate.now();
 
-        // Calculate revenue for different periods
-        BigDecimal todayRevenue = calculateRevenueBetween(now.toLocalDate().atStartOfDay(), now);
-        BigDecimal weekRevenue = calculateRevenueBetween(now.minusWeeks(1), now);
-        BigDecimal monthRevenue = calculateRevenueBetween(now.minusMonths(1), now);
-        BigDecimal yearRevenue = calculateRevenueBetween(now.minusYears(1), now);
+        // Calculate revenue for different periods from the daily rollup
+        BigDecimal todayRevenue = rollupRepository.sumRevenueBetween(today, today);
+        BigDecimal weekRevenue = rollupRepository.sumRevenueBetween(today.minusWeeks(1), today);
+        BigDecimal monthRevenue = rollupRepository.sumRevenueBetween(today.minusMonths(1), today);
+        BigDecimal yearRevenue = rollupRepository.sumRevenueBetween(today.minusYears(1), today);
 
         // Revenue by category
-        Map<String, BigDecimal> revenueByCategory = orderRepository.findOrdersBetweenDates(start, end, Pageable.unpaged())
-                .getContent().stream()
-                .filter(o -> o.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .flatMap(o -> o.getOrderItems().stream())
-                .collect(Collectors.groupingBy(
-                        item -> item.getProduct().getCategory(),
-                        Collectors.reducing(BigDecimal.ZERO,
-                                OrderItem::getTotalPrice,
-                                BigDecimal::add)
-                ));
+        Map<String, BigDecimal> revenueByCategory = rollupRepository
+                .getCategorySalesByDateRange(start.toLocalDate(), end.toLocalDate()).stream()
+                .collect(Collectors.toMap(row -> (String) row[0], row -> toBigDecimal(row[2])));
 
         // Revenue by payment method
-        Map<String, BigDecimal> revenueByPaymentMethod = orderRepository.findOrdersBetweenDates(start, end, Pageable.unpaged())
-                .getContent().stream()
-                .filter(o -> o.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .collect(Collectors.groupingBy(
-                        o -> o.getPaymentMethod().toString(),
-                        Collectors.reducing(BigDecimal.ZERO,
-                                Order::getTotalAmount,
-                                BigDecimal::add)
-                ));
+        Map<String, BigDecimal> revenueByPaymentMethod = rollupRepository
+                .getRevenueByPaymentMethod(start.toLocalDate(), end.toLocalDate()).stream()
+                .collect(Collectors.toMap(row -> row[0].toString(), row -> toBigDecimal(row[1])));
 
         return DashboardResponse.RevenueStats.builder()
                 .todayRevenue(todayRevenue)
@@ -267,26 +264,23 @@ public class AdminServiceImpl implements AdminService {
     }
 
     private DashboardResponse.OrderStats getOrderStats() {
-        List<Object[]> statusCounts = orderRepository.countOrdersByStatus();
+        // Status counts and the average come from the rollup, like the rest of the dashboard
+        List<Object[]> statusCounts = rollupRepository.countOrdersByStatus();
         Map<String, Long> ordersByStatus = new HashMap<>();
 
         for (Object[] row : statusCounts) {
             Order.OrderStatus status = (Order.OrderStatus) row[0];
-            Long count = (Long) row[1];
+            Long count = ((Number) row[1]).longValue();
             ordersByStatus.put(status.toString(), count);
         }
 
-        // Calculate average order value
-        List<Order> paidOrders = orderRepository.findAll().stream()
-                .filter(o -> o.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .collect(Collectors.toList());
-
-        BigDecimal totalRevenue = paidOrders.stream()
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // Calculate average order value of paid orders
+        Object[] paid = rollupRepository.getPaidOrderSummary().get(0);
+        long paidOrderCount = ((Number) paid[0]).longValue();
+        BigDecimal totalRevenue = toBigDecimal(paid[1]);
 
-        BigDecimal averageOrderValue = paidOrders.isEmpty() ? BigDecimal.ZERO
-                : totalRevenue.divide(BigDecimal.valueOf(paidOrders.size()), 2, BigDecimal.ROUND_HALF_UP);
+        BigDecimal averageOrderValue = paidOrderCount == 0 ? BigDecimal.ZERO
+                : totalRevenue.divide(BigDecimal.valueOf(paidOrderCount), 2, RoundingMode.HALF_UP);
 
         return DashboardResponse.OrderStats.builder()
                 .pendingOrders(ordersByStatus.getOrDefault("PENDING", 0L))
@@ -478,7 +472,7 @@ public class AdminServiceImpl implements AdminService {
 
         // Get orders
         LocalDateTime start = startDate != null ? startDate.atStartOfDay() : LocalDateTime.now().minusYears(1);
-        LocalDateTime end = endDate != null ? endDate.atTime(23, 59, 59) : LocalDateTime.now();
+        LocalDateTime end = endDate != null ? endDate.plusDays(1).atStartOfDay() : LocalDateTime.now();
         List<Order> orders = orderRepository.findOrdersBetweenDates(start, end, Pageable.unpaged()).getContent();
 
         // Add data rows
@@ -517,12 +511,8 @@ public class AdminServiceImpl implements AdminService {
                 .multiply(new BigDecimal("100"));
     }
 
-    private BigDecimal calculateRevenueBetween(LocalDateTime start, LocalDateTime end) {
-        return orderRepository.findOrdersBetweenDates(start, end, Pageable.unpaged())
-                .getContent().stream()
-                .filter(o -> o.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private BigDecimal toBigDecimal(Object value) {
+        return value != null ? new BigDecimal(value.toString()) : BigDecimal.ZERO;
     }
 
     private List<DashboardResponse.TopProduct> getTopSellingProducts(int limit) {
@@ -531,13 +521,23 @@ public class AdminServiceImpl implements AdminService {
     }
 
     private List<DashboardResponse.DailyRevenue> getDailyRevenue(LocalDateTime start, LocalDateTime end) {
-        // TODO: Implement daily revenue calculation
-        return new ArrayList<>();
+        return rollupRepository.getDailyRevenueAndOrderCount(start.toLocalDate(), end.toLocalDate()).stream()
+                .map(row -> DashboardResponse.DailyRevenue.builder()
+                        .date((LocalDate) row[0])
+                        .revenue(toBigDecimal(row[1]))
+                        .orderCount(((Number) row[2]).longValue())
+                        .build())
+                .collect(Collectors.toList());
     }
 
     private List<DashboardResponse.CategorySales> getCategorySales(LocalDateTime start, LocalDateTime end) {
-        // TODO: Implement category sales calculation
-        return new ArrayList<>();
+        return rollupRepository.getCategorySalesByDateRange(start.toLocalDate(), end.toLocalDate()).stream()
+                .map(row -> DashboardResponse.CategorySales.builder()
+                        .category((String) row[0])
+                        .quantity(((Number) row[1]).longValue())
+                        .revenue(toBigDecimal(row[2]))
+                        .build())
+                .collect(Collectors.toList());
     }
 
     private List<DashboardResponse.UserGrowth> getUserGrowth(LocalDateTime start, LocalDateTime end) {
@@ -0,0 +1,214 @@
+package com.ddd.demo.service.impl;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.common.exception.ErrorCode;
+import com.ddd.demo.common.exception.ResourceNotFoundException;
+import com.ddd.demo.dto.coupon.CouponRequest;
+import com.ddd.demo.dto.coupon.CouponResponse;
+import com.ddd.demo.entity.coupon.Coupon;
+import com.ddd.demo.entity.order.OrderItem;
+import com.ddd.demo.event.CouponChangedEvent;
+import com.ddd.demo.repository.CouponRepository;
+import com.ddd.demo.service.CouponService;
+import com.ddd.demo.service.coupon.CouponIndex;
+import com.ddd.demo.service.coupon.CouponRule;
+import com.ddd.demo.service.coupon.CouponUsageStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class CouponServiceImpl implements CouponService {
+
+    private final CouponRepository couponRepository;
+    private final CouponIndex couponIndex;
+    private final CouponUsageStore couponUsageStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public CouponResponse createCoupon(CouponRequest request) {
+        if (couponRepository.existsByCode(request.getCode())) {
+            throw new BusinessException("Coupon code already exists: " + request.getCode());
+        }
+        validateTerms(request);
+
+        Coupon coupon = new Coupon();
+        applyRequest(coupon, request);
+        Coupon savedCoupon = couponRepository.save(coupon);
+        eventPublisher.publishEvent(new CouponChangedEvent(savedCoupon.getCode()));
+
+        log.info("Coupon created: {}", savedCoupon.getCode());
+        return mapToCouponResponse(savedCoupon);
+    }
+
+    @Override
+    @Transactional
+    public CouponResponse updateCoupon(Long id, CouponRequest request) {
+        Coupon coupon = getCouponEntityById(id);
+        if (!coupon.getCode().equals(request.getCode())) {
+            throw new BusinessException("Coupon code cannot be changed");
+        }
+        validateTerms(request);
+
+        applyRequest(coupon, request);
+        eventPublisher.publishEvent(new CouponChangedEvent(coupon.getCode()));
+        return mapToCouponResponse(coupon);
+    }
+
+    @Override
+    @Transactional
+    public void deactivateCoupon(Long id) {
+        Coupon coupon = getCouponEntityById(id);
+        coupon.setActive(false);
+        eventPublisher.publishEvent(new CouponChangedEvent(coupon.getCode()));
+        log.info("Coupon deactivated: {}", coupon.getCode());
+    }
+
+    @Override
+    public CouponResponse getCouponById(Long id) {
+        return mapToCouponResponse(getCouponEntityById(id));
+    }
+
+    @Override
+    public List<CouponResponse> getAllCoupons() {
+        return couponRepository.findAll().stream()
+                .map(this::mapToCouponResponse)
+                .toList();
+    }
+
+    @Override
+    public BigDecimal calculateDiscount(String code, BigDecimal subtotal, List<OrderItem> items) {
+        CouponRule rule = getRedeemableRule(code);
+        return discountFor(rule, subtotal, items);
+    }
+
+    @Override
+    public BigDecimal redeem(String code, Long userId, BigDecimal subtotal, List<OrderItem> items) {
+        CouponRule rule = getRedeemableRule(code);
+        BigDecimal discount = discountFor(rule, subtotal, items);
+
+        switch (couponUsageStore.redeem(rule.code(), userId, rule.usageLimit(), rule.perUserLimit())) {
+            case USAGE_LIMIT_REACHED -> throw new BusinessException("Coupon usage limit has been reached: " + code);
+            case USER_LIMIT_REACHED -> throw new BusinessException("You have already used coupon: " + code);
+            case REDEEMED -> releaseOnRollback(rule.code(), userId);
+        }
+        return discount;
+    }
+
+    @Override
+    public void release(String code, Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            couponUsageStore.release(code, userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                couponUsageStore.release(code, userId);
+            }
+        });
+    }
+
+    private void releaseOnRollback(String code, Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    couponUsageStore.release(code, userId);
+                }
+            }
+        });
+    }
+
+    private CouponRule getRedeemableRule(String code) {
+        return couponIndex.find(code)
+                .filter(rule -> rule.isValidAt(LocalDateTime.now()))
+                .orElseThrow(() -> new BusinessException(ErrorCode.INVALID_COUPON.getMessage() + ": " + code));
+    }
+
+    private BigDecimal discountFor(CouponRule rule, BigDecimal subtotal, List<OrderItem> items) {
+        if (!rule.meetsMinimum(subtotal)) {
+            throw new BusinessException("Order subtotal must be at least " + rule.minOrderAmount()
+                    + " to use coupon: " + rule.code());
+        }
+
+        BigDecimal eligibleSubtotal = subtotal;
+        if (rule.isCategoryLimited()) {
+            eligibleSubtotal = items.stream()
+                    .filter(item -> rule.category().equalsIgnoreCase(item.getProduct().getCategory()))
+                    .map(OrderItem::getTotalPrice)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (eligibleSubtotal.signum() == 0) {
+                throw new BusinessException("Coupon " + rule.code() + " only applies to " + rule.category() + " products");
+            }
+        }
+        return rule.discountFor(eligibleSubtotal);
+    }
+
+    private void validateTerms(CouponRequest request) {
+        if (request.getDiscountType() == Coupon.DiscountType.PERCENT
+                && request.getDiscountValue().compareTo(BigDecimal.valueOf(100)) > 0) {
+            throw new BusinessException("Percentage discount must not exceed 100");
+        }
+        if (request.getStartsAt() != null && request.getExpiresAt() != null
+                && !request.getStartsAt().isBefore(request.getExpiresAt())) {
+            throw new BusinessException("Coupon must start before it expires");
+        }
+    }
+
+    private void applyRequest(Coupon coupon, CouponRequest request) {
+        coupon.setCode(request.getCode());
+        coupon.setDescription(request.getDescription());
+        coupon.setDiscountType(request.getDiscountType());
+        coupon.setDiscountValue(request.getDiscountValue());
+        coupon.setMaxDiscountAmount(request.getMaxDiscountAmount());
+        coupon.setMinOrderAmount(request.getMinOrderAmount());
+        coupon.setCategory(request.getCategory());
+        coupon.setUsageLimit(request.getUsageLimit());
+        coupon.setPerUserLimit(request.getPerUserLimit());
+        coupon.setStartsAt(request.getStartsAt());
+        coupon.setExpiresAt(request.getExpiresAt());
+        coupon.setActive(request.getActive() == null || request.getActive());
+    }
+
+    private Coupon getCouponEntityById(Long id) {
+        return couponRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Coupon not found with id: " + id));
+    }
+
+    private CouponResponse mapToCouponResponse(Coupon coupon) {
+        return CouponResponse.builder()
+                .id(coupon.getId())
+                .code(coupon.getCode())
+                .description(coupon.getDescription())
+                .discountType(coupon.getDiscountType())
+                .discountValue(coupon.getDiscountValue())
+                .maxDiscountAmount(coupon.getMaxDiscountAmount())
+                .minOrderAmount(coupon.getMinOrderAmount())
+                .category(coupon.getCategory())
+                .usageLimit(coupon.getUsageLimit())
+                .perUserLimit(coupon.getPerUserLimit())
+                .usedCount(couponUsageStore.getUsage(coupon.getCode()))
+                .startsAt(coupon.getStartsAt())
+                .expiresAt(coupon.getExpiresAt())
+                .active(coupon.getActive())
+                .createdAt(coupon.getCreatedAt())
+                .updatedAt(coupon.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package com.ddd.demo.service.impl;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.entity.email.EmailOutbox;
+import com.ddd.demo.repository.EmailOutboxRepository;
+import com.ddd.demo.service.EmailOutboxService;
+import com.ddd.demo.service.EmailService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.retry-delay-ms:30000}")
+    private long retryDelayMs;
+
+    @Value("${app.email.outbox.max-retry-delay-ms:3600000}")
+    private long maxRetryDelayMs;
+
+    @Value("${app.email.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String to, String subject, String templateName, Map<String, Object> variables) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(EmailOutbox.builder()
+                .recipient(to)
+                .subject(subject)
+                .templateName(templateName)
+                .variables(toJson(variables))
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:1000}")
+    public void dispatchScheduled() {
+        int sent = dispatchPending();
+        if (sent > 0) {
+            log.debug("Email outbox dispatched {} messages", sent);
+        }
+    }
+
+    /**
+     * Delivers due messages batch by batch. Each batch is claimed in one short transaction (rows
+     * marked IN_PROGRESS under a lease), sent with no transaction or row lock held, and settled in
+     * a second short transaction. A dispatcher that dies between sending and settling leaves its
+     * rows to be claimed again once the lease runs out, so a message can be sent twice but is not lost.
+     * Each claim counts as an attempt, so a message that keeps taking its dispatcher down is marked
+     * FAILED after max-attempts claims instead of being reclaimed forever.
+     */
+    @Override
+    public int dispatchPending() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int sent = 0;
+        List<EmailOutbox> batch;
+        do {
+            batch = transactionTemplate.execute(status -> claimBatch());
+
+            List<Long> delivered = new ArrayList<>();
+            Map<Long, Exception> failed = new LinkedHashMap<>();
+            for (EmailOutbox message : batch) {
+                try {
+                    emailService.deliverTemplatedEmail(message.getRecipient(), message.getSubject(),
+                            message.getTemplateName(), fromJson(message.getVariables()));
+                    delivered.add(message.getId());
+                } catch (Exception e) {
+                    failed.put(message.getId(), e);
+                }
+            }
+
+            transactionTemplate.executeWithoutResult(status -> settleBatch(delivered, failed));
+            sent += delivered.size();
+        } while (batch.size() == batchSize);
+        return sent;
+    }
+
+    // Attempts are counted when claimed, so a message whose sends never settle still runs out of attempts
+    private List<EmailOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = outboxRepository.findDueForDispatch(now, PageRequest.of(0, batchSize));
+        LocalDateTime leaseExpiry = now.plusNanos(leaseMs * 1_000_000);
+        List<EmailOutbox> batch = new ArrayList<>(due.size());
+        for (EmailOutbox message : due) {
+            // Only an expired lease gets here with no attempts left: its last attempt was never settled
+            if (message.getAttempts() >= maxAttempts) {
+                message.setStatus(EmailOutbox.OutboxStatus.FAILED);
+                message.setLastError("Lease expired before the attempt was settled");
+                log.error("Giving up on email {} to {} after {} unsettled attempts",
+                        message.getId(), message.getRecipient(), message.getAttempts());
+                continue;
+            }
+            message.setAttempts(message.getAttempts() + 1);
+            message.setStatus(EmailOutbox.OutboxStatus.IN_PROGRESS);
+            message.setNextAttemptAt(leaseExpiry);
+            batch.add(message);
+        }
+        return batch;
+    }
+
+    private void settleBatch(List<Long> delivered, Map<Long, Exception> failed) {
+        outboxRepository.deleteAllByIdInBatch(delivered);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox message : outboxRepository.findAllById(failed.keySet())) {
+            scheduleRetry(message, failed.get(message.getId()), now);
+        }
+    }
+
+    private void scheduleRetry(EmailOutbox message, Exception cause, LocalDateTime now) {
+        int attempts = message.getAttempts();
+        message.setLastError(StringUtils.abbreviate(cause.getMessage(), 500));
+
+        if (attempts >= maxAttempts) {
+            message.setStatus(EmailOutbox.OutboxStatus.FAILED);
+            log.error("Giving up on email {} to {} after {} attempts", message.getId(), message.getRecipient(), attempts, cause);
+            return;
+        }
+
+        // Exponential backoff: retryDelayMs, 2x, 4x, ... capped at maxRetryDelayMs
+        message.setStatus(EmailOutbox.OutboxStatus.PENDING);
+        long delayMs = Math.min(maxRetryDelayMs, retryDelayMs << Math.min(attempts - 1, 20));
+        message.setNextAttemptAt(now.plusNanos(delayMs * 1_000_000));
+        log.warn("Email {} to {} failed (attempt {}), retrying at {}",
+                message.getId(), message.getRecipient(), attempts, message.getNextAttemptAt());
+    }
+
+    private String toJson(Map<String, Object> variables) {
+        try {
+            return objectMapper.writeValueAsString(variables);
+        } catch (JsonProcessingException e) {
+            throw new BusinessException("Failed to serialize email variables: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> fromJson(String variables) throws JsonProcessingException {
+        return objectMapper.readValue(variables, VARIABLES_TYPE);
+    }
+}
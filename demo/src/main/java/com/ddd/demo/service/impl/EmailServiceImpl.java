@@ -120,6 +120,16 @@ public class EmailServiceImpl implements EmailService {
         }
     }
 
+    @Override
+    public void deliverTemplatedEmail(String to, String subject, String templateName, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+        String htmlContent = templateEngine.process(templateName, context);
+
+        // Self-invocation bypasses @Async, so the mail is sent before this method returns
+        sendHtmlEmail(to, subject, htmlContent);
+    }
+
     @Override
     @Async
     public void sendBulkEmails(EmailRequest emailRequest) {
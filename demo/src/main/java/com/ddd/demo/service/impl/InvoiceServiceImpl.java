@@ -0,0 +1,175 @@
+package com.ddd.demo.service.impl;
+
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.service.InvoiceService;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.invoice.Invoice;
+import com.ddd.demo.service.invoice.InvoiceRenderer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoiceServiceImpl implements InvoiceService {
+
+    // Orders in these states no longer change, so their invoice can be rendered once and kept
+    private static final Set<Order.OrderStatus> FINAL_STATUSES = EnumSet.of(
+            Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    private static final DateTimeFormatter VERSION_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS");
+
+    private final OrderService orderService;
+    private final InvoiceRenderer invoiceRenderer;
+
+    @Value("${app.invoice.cache-dir}")
+    private String cacheDir;
+
+    @Value("${app.invoice.cache-max-age:30d}")
+    private Duration cacheMaxAge;
+
+    @Value("${app.invoice.cache-max-size:1GB}")
+    private DataSize cacheMaxSize;
+
+    @Override
+    public Invoice getInvoice(Long orderId) {
+        OrderResponse order = orderService.getOrderById(orderId);
+        if (!FINAL_STATUSES.contains(order.getStatus())) {
+            return Invoice.streamed(order.getOrderNumber(), out -> invoiceRenderer.render(order, out));
+        }
+        return Invoice.cached(order.getOrderNumber(), getOrRenderCachedInvoice(order));
+    }
+
+    /**
+     * The cache file name carries the order's updatedAt, so any later change to the order
+     * (an admin correction, a refund) misses the cache instead of serving a stale invoice.
+     * Renders go to a temp file that is atomically moved into place, so readers never see a
+     * partial PDF and concurrent renders of the same invoice are harmless.
+     */
+    private Path getOrRenderCachedInvoice(OrderResponse order) {
+        Path directory = Path.of(cacheDir);
+        Path file = directory.resolve(cacheFileName(order));
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, filePrefix(order.getId()), ".tmp");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                invoiceRenderer.render(order, out);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            log.debug("Cached invoice for order {} at {}", order.getOrderNumber(), file);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("Could not render invoice for order " + order.getOrderNumber(), e);
+        }
+
+        deleteStaleInvoices(directory, order.getId(), file);
+        return file;
+    }
+
+    /**
+     * Replacing an order's invoice removes its previous file, but invoices of orders that never change
+     * again, and temp files of renders that died, would stay forever. The sweep deletes files rendered
+     * more than {@code app.invoice.cache-max-age} ago, then the oldest ones until the directory fits in
+     * {@code app.invoice.cache-max-size}. A swept invoice is simply rendered again on its next request.
+     */
+    @Scheduled(fixedDelayString = "${app.invoice.sweep-interval-ms:3600000}")
+    public void sweepCache() {
+        Path directory = Path.of(cacheDir);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        List<CachedFile> files = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "invoice-*")) {
+            for (Path path : entries) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    files.add(new CachedFile(path, attributes.lastModifiedTime().toInstant(), attributes.size()));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep the invoice cache: {}", e.getMessage());
+            return;
+        }
+
+        Instant cutoff = Instant.now().minus(cacheMaxAge);
+        files.sort(Comparator.comparing(CachedFile::modifiedAt));
+        long totalSize = files.stream().mapToLong(CachedFile::size).sum();
+        int deleted = 0;
+        for (CachedFile file : files) {
+            if (file.modifiedAt().isAfter(cutoff) && totalSize <= cacheMaxSize.toBytes()) {
+                break;
+            }
+            deleteQuietly(file.path());
+            totalSize -= file.size();
+            deleted++;
+        }
+        if (deleted > 0) {
+            log.info("Swept {} invoices from the cache, {} bytes left", deleted, totalSize);
+        }
+    }
+
+    private void deleteStaleInvoices(Path directory, Long orderId, Path current) {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, filePrefix(orderId) + "*.pdf")) {
+            for (Path stale : files) {
+                if (!stale.equals(current)) {
+                    deleteQuietly(stale);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not clean up old invoices of order {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private String cacheFileName(OrderResponse order) {
+        LocalDateTime version = order.getUpdatedAt() != null ? order.getUpdatedAt() : order.getCreatedAt();
+        return filePrefix(order.getId()) + version.format(VERSION_FORMATTER) + ".pdf";
+    }
+
+    private String filePrefix(Long orderId) {
+        return "invoice-" + orderId + "-";
+    }
+
+    private record CachedFile(Path path, Instant modifiedAt, long size) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.ddd.demo.service.impl;
+
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.repository.OrderArchiveRepository;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderArchiveService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves finished orders out of {@code orders}/{@code order_items} into
+ * {@code orders_archive}/{@code order_items_archive}, so list, count and statistics queries on the
+ * live tables only scan recent history.
+ * <p>
+ * Delivered, cancelled and refunded orders created before the cutoff are walked in id order, one
+ * chunk per transaction: the chunk is locked, copied with {@code INSERT ... SELECT} and deleted in
+ * the same commit. A moved order no longer matches, so a run that dies part way is simply
+ * repeated by the next one and no checkpoint is kept. Reads by id, order number and user fall back
+ * to the archive in {@link OrderServiceImpl}; admin search and statistics cover live orders only.
+ * <p>
+ * Metrics: {@code order.archive.archived} (orders moved) and {@code order.archive.batch}
+ * (time per chunk).
+ */
+@Slf4j
+@Service
+public class OrderArchiveServiceImpl implements OrderArchiveService {
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+    private final Timer batchTimer;
+
+    @Value("${app.order.archive.older-than:180d}")
+    private Duration olderThan;
+
+    @Value("${app.order.archive.chunk-size:500}")
+    private int chunkSize;
+
+    public OrderArchiveServiceImpl(OrderRepository orderRepository,
+                                   OrderArchiveRepository orderArchiveRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = meterRegistry.counter("order.archive.archived");
+        this.batchTimer = meterRegistry.timer("order.archive.batch");
+    }
+
+    @Override
+    @Scheduled(cron = "${app.order.archive.cron:0 0 4 * * *}")
+    public int archiveOrders() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(olderThan);
+        long afterId = 0L;
+        int total = 0;
+        while (true) {
+            long lastId = afterId;
+            List<Long> moved = batchTimer.record(() -> transactionTemplate.execute(status -> moveChunk(cutoff, lastId)));
+            if (moved == null || moved.isEmpty()) {
+                break;
+            }
+            afterId = moved.get(moved.size() - 1);
+            total += moved.size();
+        }
+
+        if (total > 0) {
+            log.info("Archived {} orders created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    // Returns the ids moved in this chunk, empty once nothing is left
+    private List<Long> moveChunk(LocalDateTime cutoff, long afterId) {
+        List<Long> ids = orderRepository.findArchivableOrders(cutoff, afterId, PageRequest.ofSize(chunkSize))
+                .stream()
+                .map(Order::getId)
+                .toList();
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        orderArchiveRepository.copyOrders(ids, LocalDateTime.now());
+        orderArchiveRepository.copyOrderItems(ids);
+        orderArchiveRepository.deleteLiveOrderItems(ids);
+        orderArchiveRepository.deleteLiveOrders(ids);
+        archivedCounter.increment(ids.size());
+        return ids;
+    }
+}
@@ -0,0 +1,156 @@
+package com.ddd.demo.service.impl;
+
+import com.ddd.demo.entity.job.JobCheckpoint;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.order.OrderItem;
+import com.ddd.demo.event.OrderChangedEvent;
+import com.ddd.demo.event.OrderSnapshot;
+import com.ddd.demo.repository.JobCheckpointRepository;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.CouponService;
+import com.ddd.demo.service.OrderExpiryService;
+import com.ddd.demo.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cancels PENDING orders that were never paid and gives their stock back.
+ * <p>
+ * A run fixes its cutoff up front and walks the matching orders in id order, one chunk per
+ * transaction. Each chunk cancels its orders, releases stock for all of them with a single
+ * set-based update and advances the {@link JobCheckpoint} in the same commit, so a crash resumes
+ * after the last committed chunk with the original cutoff. Cash on delivery orders are never
+ * expired because they are paid on delivery.
+ * <p>
+ * Metrics: {@code order.expiry.expired} (orders cancelled) and {@code order.expiry.batch}
+ * (time per chunk).
+ */
+@Slf4j
+@Service
+public class OrderExpiryServiceImpl implements OrderExpiryService {
+
+    static final String JOB_NAME = "order-expiry";
+
+    private static final String CANCELLATION_REASON = "Payment not received in time";
+
+    private final OrderRepository orderRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final ProductService productService;
+    private final CouponService couponService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter expiredCounter;
+    private final Timer batchTimer;
+
+    @Value("${app.order.expiry.unpaid-ttl:30m}")
+    private Duration unpaidTtl;
+
+    @Value("${app.order.expiry.chunk-size:100}")
+    private int chunkSize;
+
+    public OrderExpiryServiceImpl(OrderRepository orderRepository,
+                                  JobCheckpointRepository checkpointRepository,
+                                  ProductService productService,
+                                  CouponService couponService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.productService = productService;
+        this.couponService = couponService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiredCounter = meterRegistry.counter("order.expiry.expired");
+        this.batchTimer = meterRegistry.timer("order.expiry.batch");
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.order.expiry.interval-ms:60000}",
+            initialDelayString = "${app.order.expiry.interval-ms:60000}")
+    public int expireUnpaidOrders() {
+        transactionTemplate.executeWithoutResult(status -> startOrResumeRun());
+
+        int total = 0;
+        while (true) {
+            Integer expired = batchTimer.record(() -> transactionTemplate.execute(status -> processChunk()));
+            if (expired == null || expired < 0) {
+                break;
+            }
+            total += expired;
+        }
+
+        if (total > 0) {
+            log.info("Expired {} unpaid orders", total);
+        }
+        return total;
+    }
+
+    private void startOrResumeRun() {
+        LocalDateTime now = LocalDateTime.now();
+        JobCheckpoint checkpoint = checkpointRepository.findForUpdate(JOB_NAME).orElse(null);
+        if (checkpoint == null) {
+            checkpoint = JobCheckpoint.builder().jobName(JOB_NAME).build();
+            checkpoint.startRun(now.minus(unpaidTtl), now);
+            checkpointRepository.save(checkpoint);
+        } else if (checkpoint.getStatus() == JobCheckpoint.RunStatus.COMPLETED) {
+            checkpoint.startRun(now.minus(unpaidTtl), now);
+        } else {
+            log.info("Resuming order expiry run after order {} with cutoff {}",
+                    checkpoint.getLastProcessedId(), checkpoint.getCutoff());
+        }
+    }
+
+    // Returns the number of orders expired in this chunk, or -1 once the run is complete
+    private int processChunk() {
+        LocalDateTime now = LocalDateTime.now();
+        JobCheckpoint checkpoint = checkpointRepository.findForUpdate(JOB_NAME).orElse(null);
+        if (checkpoint == null || checkpoint.getStatus() != JobCheckpoint.RunStatus.RUNNING) {
+            return -1;
+        }
+
+        List<Order> locked = orderRepository.findExpiredUnpaidOrders(
+                checkpoint.getCutoff(), checkpoint.getLastProcessedId(), PageRequest.ofSize(chunkSize));
+        if (locked.isEmpty()) {
+            checkpoint.complete(now);
+            return -1;
+        }
+
+        // Items and products are needed for the stock release and the change event
+        List<Order> orders = orderRepository.findWithItemsByIdIn(locked.stream().map(Order::getId).toList());
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (Order order : orders) {
+            OrderSnapshot before = OrderSnapshot.of(order);
+            order.setStatus(Order.OrderStatus.CANCELLED);
+            order.setCancelledDate(now);
+            order.setCancellationReason(CANCELLATION_REASON);
+            for (OrderItem item : order.getOrderItems()) {
+                quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+            }
+            if (order.getCouponCode() != null) {
+                couponService.release(order.getCouponCode(), order.getUser().getId());
+            }
+            eventPublisher.publishEvent(new OrderChangedEvent(before, OrderSnapshot.of(order)));
+        }
+        productService.releaseStock(quantities);
+
+        checkpoint.advance(locked.get(locked.size() - 1).getId(), orders.size(), now);
+        expiredCounter.increment(orders.size());
+        return orders.size();
+    }
+}
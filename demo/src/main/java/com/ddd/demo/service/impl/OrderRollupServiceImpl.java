@@ -0,0 +1,207 @@
+package com.ddd.demo.service.impl;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.entity.order.DailyOrderRollup;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.event.OrderChangedEvent;
+import com.ddd.demo.event.OrderSnapshot;
+import com.ddd.demo.repository.DailyOrderRollupRepository;
+import com.ddd.demo.repository.OrderArchiveRepository;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderRollupServiceImpl implements OrderRollupService {
+
+    // Deltas are applied in key order so concurrent listeners lock rollup rows in the same order
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+            .comparing(RollupKey::date)
+            .thenComparing(RollupKey::status)
+            .thenComparing(RollupKey::paymentStatus)
+            .thenComparing(RollupKey::paymentMethod)
+            .thenComparing(RollupKey::category);
+
+    private final DailyOrderRollupRepository rollupRepository;
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.order.rollup.reconcile-days:2}")
+    private int reconcileDays;
+
+    @Override
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Map<RollupKey, RollupDelta> deltas = new TreeMap<>(KEY_ORDER);
+        if (event.getBefore() != null) {
+            contribute(deltas, event.getBefore(), -1);
+        }
+        contribute(deltas, event.getAfter(), 1);
+        deltas.values().removeIf(RollupDelta::isZero);
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            applyDeltas(deltas);
+        } catch (DataIntegrityViolationException e) {
+            // Another listener inserted one of the rows first; on retry the update path finds it
+            applyDeltas(deltas);
+        } catch (Exception e) {
+            log.error("Failed to update daily rollup for order {}, rebuild the affected day to correct it",
+                    event.getOrderId(), e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new BusinessException("Invalid rollup date range");
+        }
+
+        // An order is either live or archived, so both tiers are summed into the same rows;
+        // without the archive a rebuild would erase the revenue of every archived order in the range
+        LocalDateTime start = startDate.atStartOfDay();
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+        Map<RollupKey, RollupDelta> rows = new TreeMap<>(KEY_ORDER);
+        addOrderRows(rows, orderRepository.aggregateOrdersForRollup(start, end));
+        addOrderRows(rows, orderArchiveRepository.aggregateOrdersForRollup(start, end));
+        addItemRows(rows, orderRepository.aggregateOrderItemsForRollup(start, end));
+        addItemRows(rows, orderArchiveRepository.aggregateOrderItemsForRollup(start, end));
+
+        rollupRepository.deleteByRollupDateBetween(startDate, endDate);
+        rollupRepository.saveAll(rows.entrySet().stream()
+                .map(entry -> toEntity(entry.getKey(), entry.getValue()))
+                .toList());
+
+        log.info("Rebuilt daily order rollup from {} to {}: {} rows", startDate, endDate, rows.size());
+        return rows.size();
+    }
+
+    @Override
+    @Transactional
+    @Scheduled(cron = "${app.order.rollup.reconcile-cron:0 30 2 * * *}")
+    public void reconcileRecentDays() {
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(reconcileDays), today.minusDays(1));
+    }
+
+    private void addOrderRows(Map<RollupKey, RollupDelta> rows, List<Object[]> aggregates) {
+        for (Object[] row : aggregates) {
+            RollupKey key = new RollupKey((LocalDate) row[0], (Order.OrderStatus) row[1],
+                    (Order.PaymentStatus) row[2], (Order.PaymentMethod) row[3], DailyOrderRollup.ALL_CATEGORIES);
+            rows.computeIfAbsent(key, k -> new RollupDelta())
+                    .add(((Number) row[4]).longValue(), 0, toBigDecimal(row[5]));
+        }
+    }
+
+    private void addItemRows(Map<RollupKey, RollupDelta> rows, List<Object[]> aggregates) {
+        for (Object[] row : aggregates) {
+            RollupKey key = new RollupKey((LocalDate) row[0], (Order.OrderStatus) row[1],
+                    (Order.PaymentStatus) row[2], (Order.PaymentMethod) row[3], categoryOf((String) row[4]));
+            rows.computeIfAbsent(key, k -> new RollupDelta())
+                    .add(0, ((Number) row[5]).longValue(), toBigDecimal(row[6]));
+        }
+    }
+
+    private void applyDeltas(Map<RollupKey, RollupDelta> deltas) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.executeWithoutResult(status -> deltas.forEach((key, delta) -> {
+            int updated = rollupRepository.addToRollup(key.date(), key.status(), key.paymentStatus(),
+                    key.paymentMethod(), key.category(), delta.orderCount, delta.itemQuantity, delta.amount);
+            if (updated == 0) {
+                rollupRepository.save(toEntity(key, delta));
+            }
+        }));
+    }
+
+    private void contribute(Map<RollupKey, RollupDelta> deltas, OrderSnapshot snapshot, int sign) {
+        if (snapshot.getPaymentMethod() == null) {
+            return;
+        }
+
+        RollupKey orderKey = new RollupKey(snapshot.getOrderDate(), snapshot.getStatus(),
+                snapshot.getPaymentStatus(), snapshot.getPaymentMethod(), DailyOrderRollup.ALL_CATEGORIES);
+        deltas.computeIfAbsent(orderKey, k -> new RollupDelta())
+                .add(sign, 0, signed(snapshot.getTotalAmount(), sign));
+
+        for (OrderSnapshot.Line line : snapshot.getLines()) {
+            RollupKey lineKey = new RollupKey(snapshot.getOrderDate(), snapshot.getStatus(),
+                    snapshot.getPaymentStatus(), snapshot.getPaymentMethod(), categoryOf(line.getCategory()));
+            deltas.computeIfAbsent(lineKey, k -> new RollupDelta())
+                    .add(0, (long) sign * line.getQuantity(), signed(line.getTotalPrice(), sign));
+        }
+    }
+
+    private DailyOrderRollup toEntity(RollupKey key, RollupDelta delta) {
+        return DailyOrderRollup.builder()
+                .rollupDate(key.date())
+                .orderStatus(key.status())
+                .paymentStatus(key.paymentStatus())
+                .paymentMethod(key.paymentMethod())
+                .category(key.category())
+                .orderCount(delta.orderCount)
+                .itemQuantity(delta.itemQuantity)
+                .amount(delta.amount)
+                .build();
+    }
+
+    private String categoryOf(String category) {
+        return category != null ? category : DailyOrderRollup.UNCATEGORIZED;
+    }
+
+    private BigDecimal signed(BigDecimal value, int sign) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return sign < 0 ? value.negate() : value;
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        return value != null ? new BigDecimal(value.toString()) : BigDecimal.ZERO;
+    }
+
+    private record RollupKey(LocalDate date, Order.OrderStatus status, Order.PaymentStatus paymentStatus,
+                             Order.PaymentMethod paymentMethod, String category) {
+    }
+
+    private static class RollupDelta {
+        private long orderCount;
+        private long itemQuantity;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        void add(long orderCount, long itemQuantity, BigDecimal amount) {
+            this.orderCount += orderCount;
+            this.itemQuantity += itemQuantity;
+            this.amount = this.amount.add(amount);
+        }
+
+        boolean isZero() {
+            return orderCount == 0 && itemQuantity == 0 && amount.signum() == 0;
+        }
+    }
+}
@@ -1,27 +1,51 @@
 package com.ddd.demo.service.impl;
 
+import com.ddd.demo.common.constants.AppConstants;
 import com.ddd.demo.common.exception.BusinessException;
 import com.ddd.demo.common.exception.ResourceNotFoundException;
 import com.ddd.demo.dto.order.*;
 import com.ddd.demo.dto.product.ProductResponse;
 import com.ddd.demo.dto.user.UserResponse;
+import com.ddd.demo.entity.order.ArchivedOrder;
 import com.ddd.demo.entity.order.Order;
 import com.ddd.demo.entity.order.OrderItem;
 import com.ddd.demo.entity.order.ShippingAddress;
 import com.ddd.demo.entity.product.Product;
 import com.ddd.demo.entity.user.User;
+import com.ddd.demo.event.OrderChangedEvent;
+import com.ddd.demo.event.OrderSnapshot;
+import com.ddd.demo.repository.DailyOrderRollupRepository;
+import com.ddd.demo.repository.OrderArchiveRepository;
 import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.repository.OrderSpecifications;
 import com.ddd.demo.repository.ProductRepository;
 import com.ddd.demo.repository.UserRepository;
-import com.ddd.demo.service.EmailService;
+import com.ddd.demo.service.CouponService;
+import com.ddd.demo.service.EmailOutboxService;
 import com.ddd.demo.service.OrderService;
 import com.ddd.demo.service.ProductService;
+import com.ddd.demo.service.order.OptimisticLockRetryExecutor;
+import com.ddd.demo.service.order.OrderNumberGenerator;
+import com.ddd.demo.service.order.OrderOwnershipLookup;
+import com.ddd.demo.service.order.PricingEngine;
+import com.ddd.demo.service.product.ProductSnapshot;
+import com.ddd.demo.service.product.ProductSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
@@ -38,22 +62,19 @@ import java.util.stream.Collectors;
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final ProductService productService;
-    private final EmailService emailService;
-
-    @Value("${app.order.tax-rate:0.1}")
-    private BigDecimal taxRate;
-
-    @Value("${app.order.standard-shipping-fee:30000}")
-    private BigDecimal standardShippingFee;
-
-    @Value("${app.order.express-shipping-fee:50000}")
-    private BigDecimal expressShippingFee;
-
-    @Value("${app.order.free-shipping-threshold:500000}")
-    private BigDecimal freeShippingThreshold;
+    private final CouponService couponService;
+    private final EmailOutboxService emailOutboxService;
+    private final DailyOrderRollupRepository rollupRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final OptimisticLockRetryExecutor retryExecutor;
+    private final PricingEngine pricingEngine;
+    private final OrderOwnershipLookup orderOwnershipLookup;
+    private final ProductSnapshotCache productSnapshotCache;
 
     private static final Map<Order.OrderStatus, Set<Order.OrderStatus>> VALID_STATUS_TRANSITIONS = Map.of(
             Order.OrderStatus.PENDING, Set.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.CANCELLED),
@@ -74,14 +95,19 @@ public class OrderServiceImpl implements OrderService {
     @Override
     @Transactional
     public OrderResponse createOrder(Long userId, OrderRequest request) {
-        User user = getUserById(userId);
-        Order order = buildOrder(user, request);
+        return createOrder(userId, request, orderNumberGenerator.nextOrderNumber());
+    }
 
-        BigDecimal subtotal = processOrderItems(order, request.getItems());
-        order.setSubtotal(subtotal);
+    @Override
+    @Transactional
+    public OrderResponse createOrder(Long userId, OrderRequest request, String orderNumber) {
+        User user = getUserById(userId);
+        Order order = buildOrder(user, request, orderNumber);
 
-        calculateOrderAmounts(order, request);
+        long subtotal = processOrderItems(order, request.getItems());
+        calculateOrderAmounts(order, request, subtotal);
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(null, OrderSnapshot.of(savedOrder)));
 
         sendOrderConfirmationEmail(savedOrder);
         log.info("Order created successfully: {}", savedOrder.getOrderNumber());
@@ -90,40 +116,94 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Cacheable(value = AppConstants.Cache.ORDERS_CACHE, key = "#id")
     public OrderResponse getOrderById(Long id) {
-        Order order = getOrderEntityById(id);
-        return mapToOrderResponse(order);
+        return orderRepository.findWithDetailsById(id)
+                .map(this::mapToOrderResponse)
+                .or(() -> orderArchiveRepository.findWithDetailsById(id).map(this::mapToOrderResponse))
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
     }
 
     @Override
+    @Cacheable(value = AppConstants.Cache.ORDERS_CACHE, key = "#orderNumber")
     public OrderResponse getOrderByNumber(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        return orderRepository.findWithDetailsByOrderNumber(orderNumber)
+                .map(this::mapToOrderResponse)
+                .or(() -> orderArchiveRepository.findWithDetailsByOrderNumber(orderNumber).map(this::mapToOrderResponse))
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with number: " + orderNumber));
-        return mapToOrderResponse(order);
+    }
+
+    @Override
+    public OrderStatusEvent getOrderStatus(Long id) {
+        // A cached response may predate a change whose event was already sent, so read the row itself
+        return orderRepository.findById(id)
+                .map(OrderStatusEvent::of)
+                .or(() -> orderArchiveRepository.findById(id).map(OrderStatusEvent::of))
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
     }
 
     @Override
     public Page<OrderResponse> getUserOrders(Long userId, Order.OrderStatus status, Pageable pageable) {
-        Page<Order> orders = status == null
-                ? orderRepository.findByUserId(userId, pageable)
-                : orderRepository.findByUserIdAndStatus(userId, status, pageable);
-        return orders.map(this::mapToOrderResponse);
+        long archivedTotal = status == null
+                ? orderArchiveRepository.countByUserId(userId)
+                : orderArchiveRepository.countByUserIdAndStatus(userId, status);
+        if (archivedTotal == 0) {
+            return mapToOrderResponsePage(findUserOrders(userId, status, pageable));
+        }
+        return mergeArchivedOrders(userId, status, pageable, archivedTotal);
     }
 
     @Override
-    public Page<OrderResponse> getAllOrders(Order.OrderStatus status, LocalDate startDate, LocalDate endDate, Pageable pageable) {
-        Page<Order> orders = getOrdersWithFilters(status, startDate, endDate, pageable);
-        return orders.map(this::mapToOrderResponse);
+    public Page<OrderResponse> getAllOrders(OrderSearchRequest search, Pageable pageable) {
+        Page<Order> orders = orderRepository.findAll(OrderSpecifications.matching(search), pageable);
+        return mapToOrderResponsePage(orders);
     }
 
     @Override
-    @Transactional
+    public Window<OrderResponse> getUserOrders(Long userId, Order.OrderStatus status, ScrollPosition position, int size) {
+        Window<Order> orders = status == null
+                ? orderRepository.findWithUserByUserIdOrderByCreatedAtDescIdDesc(userId, position, Limit.of(size))
+                : orderRepository.findWithUserByUserIdAndStatusOrderByCreatedAtDescIdDesc(userId, status, position, Limit.of(size));
+        Window<ArchivedOrder> archived = status == null
+                ? orderArchiveRepository.findWithUserByUserIdOrderByCreatedAtDescIdDesc(userId, position, Limit.of(size))
+                : orderArchiveRepository.findWithUserByUserIdAndStatusOrderByCreatedAtDescIdDesc(userId, status, position, Limit.of(size));
+        if (archived.isEmpty()) {
+            return mapToOrderResponseWindow(orders);
+        }
+
+        // Both tiers are read from the same position in the same order, so the first rows of the merge are exact
+        List<OrderResponse> merged = new ArrayList<>(mapToOrderResponseWindow(orders).getContent());
+        merged.addAll(mapArchivedOrders(archived.getContent()));
+        merged.sort(Comparator.comparing(OrderResponse::getCreatedAt).thenComparing(OrderResponse::getId).reversed());
+        boolean hasNext = merged.size() > size || orders.hasNext() || archived.hasNext();
+        List<OrderResponse> content = merged.subList(0, Math.min(size, merged.size()));
+        return Window.from(content, index -> keysetPosition(content.get(index)), hasNext);
+    }
+
+    @Override
+    public Window<OrderResponse> getAllOrders(OrderSearchRequest search, ScrollPosition position, int size) {
+        Window<Order> orders = orderRepository.findBy(OrderSpecifications.matching(search), query -> query
+                .sortBy(Sort.by(Sort.Direction.DESC, "createdAt", "id"))
+                .project("user")
+                .limit(size)
+                .scroll(position));
+        return mapToOrderResponseWindow(orders);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse updateOrderStatus(Long id, OrderStatusUpdateRequest request) {
+        return retryExecutor.execute("updateOrderStatus", () -> applyStatusUpdate(id, request));
+    }
+
+    private OrderResponse applyStatusUpdate(Long id, OrderStatusUpdateRequest request) {
         Order order = getOrderEntityById(id);
         validateStatusTransition(order.getStatus(), request.getStatus());
+        OrderSnapshot before = OrderSnapshot.of(order);
 
         updateOrderForNewStatus(order, request);
         Order updatedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(before, OrderSnapshot.of(updatedOrder)));
 
         sendStatusUpdateEmail(updatedOrder);
         log.info("Order {} status updated to: {}", order.getOrderNumber(), request.getStatus());
@@ -132,23 +212,97 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    @Transactional
-    public void cancelOrder(Long id, String reason) {
-        Order order = getOrderEntityById(id);
-        validateOrderCancellation(order);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderBatchStatusUpdateResponse updateOrderStatuses(OrderBatchStatusUpdateRequest request) {
+        return retryExecutor.execute("updateOrderStatuses", () -> applyBatchStatusUpdate(request));
+    }
 
-        OrderStatusUpdateRequest request = OrderStatusUpdateRequest.builder()
-                .status(Order.OrderStatus.CANCELLED)
-                .cancellationReason(reason)
+    private OrderBatchStatusUpdateResponse applyBatchStatusUpdate(OrderBatchStatusUpdateRequest request) {
+        List<Long> orderIds = request.getOrderIds().stream().distinct().toList();
+        Map<Long, Order> orders = orderRepository.findWithDetailsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, order -> order));
+
+        OrderStatusUpdateRequest statusRequest = OrderStatusUpdateRequest.builder()
+                .status(request.getStatus())
+                .notes(request.getNotes())
+                .trackingNumber(request.getTrackingNumber())
+                .cancellationReason(request.getCancellationReason())
                 .build();
 
-        updateOrderStatus(id, request);
+        List<OrderBatchStatusUpdateResponse.Result> results = new ArrayList<>(orderIds.size());
+        List<Order> updatedOrders = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            Order order = orders.get(orderId);
+            if (order == null) {
+                results.add(batchFailure(orderId, null, null, "Order not found with id: " + orderId));
+                continue;
+            }
+
+            Order.OrderStatus previousStatus = order.getStatus();
+            if (!VALID_STATUS_TRANSITIONS.get(previousStatus).contains(request.getStatus())) {
+                results.add(batchFailure(orderId, order.getOrderNumber(), previousStatus,
+                        "Invalid status transition from " + previousStatus + " to " + request.getStatus()));
+                continue;
+            }
+
+            OrderSnapshot before = OrderSnapshot.of(order);
+            updateOrderForNewStatus(order, statusRequest);
+            eventPublisher.publishEvent(new OrderChangedEvent(before, OrderSnapshot.of(order)));
+            updatedOrders.add(order);
+            results.add(OrderBatchStatusUpdateResponse.Result.builder()
+                    .orderId(orderId)
+                    .orderNumber(order.getOrderNumber())
+                    .success(true)
+                    .previousStatus(previousStatus)
+                    .build());
+        }
+
+        // Managed orders are flushed together, so Hibernate sends the UPDATEs in JDBC batches
+        orderRepository.saveAll(updatedOrders);
+        updatedOrders.forEach(this::sendStatusUpdateEmail);
+        log.info("Batch status update to {}: {} updated, {} failed", request.getStatus(),
+                updatedOrders.size(), orderIds.size() - updatedOrders.size());
+
+        return OrderBatchStatusUpdateResponse.builder()
+                .targetStatus(request.getStatus())
+                .updatedCount(updatedOrders.size())
+                .failedCount(orderIds.size() - updatedOrders.size())
+                .results(results)
+                .build();
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void cancelOrder(Long id, String reason) {
+        retryExecutor.execute("cancelOrder", () -> {
+            Order order = getOrderEntityById(id);
+            validateOrderCancellation(order);
+
+            OrderStatusUpdateRequest request = OrderStatusUpdateRequest.builder()
+                    .status(Order.OrderStatus.CANCELLED)
+                    .cancellationReason(reason)
+                    .build();
+
+            return applyStatusUpdate(id, request);
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updatePaymentStatus(Long id, Order.PaymentStatus status) {
+        retryExecutor.execute("updatePaymentStatus", () -> {
+            applyPaymentStatus(id, status);
+            return null;
+        });
+    }
+
+    private void applyPaymentStatus(Long id, Order.PaymentStatus status) {
         Order order = getOrderEntityById(id);
+        // Stock and coupon of a cancelled (or expired) order are already released, so it cannot be paid
+        if (status == Order.PaymentStatus.PAID && order.getStatus() == Order.OrderStatus.CANCELLED) {
+            throw new BusinessException("Cannot pay for cancelled order " + order.getOrderNumber());
+        }
+        OrderSnapshot before = OrderSnapshot.of(order);
         order.setPaymentStatus(status);
 
         if (status == Order.PaymentStatus.PAID) {
@@ -159,13 +313,22 @@ public class OrderServiceImpl implements OrderService {
         }
 
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(before, OrderSnapshot.of(order)));
         log.info("Order {} payment status updated to: {}", order.getOrderNumber(), status);
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateShippingInfo(Long id, String trackingNumber) {
+        retryExecutor.execute("updateShippingInfo", () -> {
+            applyShippingInfo(id, trackingNumber);
+            return null;
+        });
+    }
+
+    private void applyShippingInfo(Long id, String trackingNumber) {
         Order order = getOrderEntityById(id);
+        OrderSnapshot before = OrderSnapshot.of(order);
         order.setTrackingNumber(trackingNumber);
 
         if (order.getStatus() == Order.OrderStatus.PROCESSING) {
@@ -174,27 +337,26 @@ public class OrderServiceImpl implements OrderService {
         }
 
         orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(before, OrderSnapshot.of(order)));
         log.info("Order {} tracking number updated: {}", order.getOrderNumber(), trackingNumber);
     }
 
     @Override
     public boolean isOrderOwner(Long orderId, Long userId) {
-        return orderRepository.findById(orderId)
-                .map(order -> order.getUser().getId().equals(userId))
-                .orElse(false);
+        OrderOwnership ownership = orderOwnershipLookup.find(orderId);
+        return ownership != null && ownership.isOwnedBy(userId);
     }
 
     @Override
     public boolean canCancelOrder(Long orderId, Long userId) {
-        return orderRepository.findById(orderId)
-                .map(order -> order.getUser().getId().equals(userId) && isOrderCancellable(order))
-                .orElse(false);
+        OrderOwnership ownership = orderOwnershipLookup.find(orderId);
+        return ownership != null && ownership.isOwnedBy(userId) && CANCELLABLE_STATUSES.contains(ownership.status());
     }
 
     @Override
     public Map<String, Object> getOrderStatistics(LocalDate startDate, LocalDate endDate) {
-        LocalDateTime start = getStartDateTime(startDate);
-        LocalDateTime end = getEndDateTime(endDate);
+        LocalDate start = startDate != null ? startDate : LocalDate.now().minusMonths(1);
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
 
         Map<String, Object> stats = new HashMap<>();
         populateRevenueStatistics(stats, start, end);
@@ -204,34 +366,77 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public byte[] generateInvoice(Long orderId) {
-        Order order = getOrderEntityById(orderId);
-        // TODO: Implement PDF generation using libraries like iText or JasperReports
-        return ("Invoice for Order: " + order.getOrderNumber()).getBytes();
-    }
-
-    @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void processPayment(Long orderId, String paymentToken) {
-        Order order = getOrderEntityById(orderId);
         // TODO: Integrate with payment gateway (Stripe, PayPal, etc.)
+        // The status update loads the order (and fails if it is missing), so only the id is logged here
         updatePaymentStatus(orderId, Order.PaymentStatus.PAID);
-        log.info("Payment processed for order: {}", order.getOrderNumber());
+        log.info("Payment processed for order id: {}", orderId);
     }
 
     @Override
     public BigDecimal calculateShippingFee(OrderRequest request) {
-        if (request.getSubtotal() != null && request.getSubtotal().compareTo(freeShippingThreshold) >= 0) {
-            return BigDecimal.ZERO;
-        }
-
-        return "EXPRESS".equals(request.getShippingMethod()) ? expressShippingFee : standardShippingFee;
+        long shippingFee = shippingFeeFor(request.getSubtotal(), shippingMethodOf(request.getShippingMethod()));
+        return PricingEngine.toAmount(shippingFee);
     }
 
     @Override
-    public BigDecimal applyCoupon(String couponCode, BigDecimal subtotal) {
-        // TODO: Implement coupon validation and calculation
-        return subtotal.multiply(new BigDecimal("0.1")); // 10% discount
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public OrderQuoteResponse quoteOrder(OrderQuoteRequest request) {
+        // Cached snapshots, so a repeated quote for the same products does not touch the database
+        Map<Long, Integer> quantities = aggregateQuantities(request.getItems());
+        Map<Long, ProductSnapshot> products = productSnapshotCache.getAll(quantities.keySet());
+
+        long subtotal = 0;
+        boolean available = true;
+        List<OrderQuoteResponse.Line> lines = new ArrayList<>(request.getItems().size());
+        // Coupons read the category and line total of each item, as when the order is placed
+        List<OrderItem> pricedItems = new ArrayList<>(request.getItems().size());
+        for (OrderItemRequest itemRequest : request.getItems()) {
+            ProductSnapshot product = products.get(itemRequest.getProductId());
+            long lineTotal = pricingEngine.lineTotal(product.unitPrice(), itemRequest.getQuantity(), 0);
+            boolean inStock = product.stockQuantity() >= quantities.get(product.id());
+            lines.add(OrderQuoteResponse.Line.builder()
+                    .productId(product.id())
+                    .productName(product.productName())
+                    .unitPrice(product.price())
+                    .quantity(itemRequest.getQuantity())
+                    .totalPrice(PricingEngine.toAmount(lineTotal))
+                    .inStock(inStock)
+                    .build());
+            pricedItems.add(OrderItem.builder()
+                    .product(Product.builder().category(product.category()).build())
+                    .quantity(itemRequest.getQuantity())
+                    .totalPrice(PricingEngine.toAmount(lineTotal))
+                    .build());
+            subtotal += lineTotal;
+            available &= inStock;
+        }
+
+        long discount = 0;
+        String couponMessage = null;
+        if (request.getCouponCode() != null) {
+            try {
+                discount = PricingEngine.toMinor(couponService.calculateDiscount(
+                        request.getCouponCode(), PricingEngine.toAmount(subtotal), pricedItems));
+            } catch (BusinessException e) {
+                couponMessage = e.getMessage();
+            }
+        }
+
+        long shippingFee = shippingFeeFor(request.getSubtotal(), shippingMethodOf(request.getShippingMethod()));
+        PricingEngine.Amounts amounts = pricingEngine.price(subtotal, shippingFee, discount);
+        return OrderQuoteResponse.builder()
+                .items(lines)
+                .subtotal(PricingEngine.toAmount(amounts.subtotal()))
+                .discountAmount(PricingEngine.toAmount(amounts.discount()))
+                .taxAmount(PricingEngine.toAmount(amounts.tax()))
+                .shippingFee(PricingEngine.toAmount(amounts.shippingFee()))
+                .totalAmount(PricingEngine.toAmount(amounts.total()))
+                .couponCode(request.getCouponCode())
+                .couponMessage(couponMessage)
+                .available(available)
+                .build();
     }
 
     // Private helper methods
@@ -241,13 +446,14 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private Order getOrderEntityById(Long id) {
-        return orderRepository.findById(id)
+        // Items and products are fetched up front because every mutation snapshots them for OrderChangedEvent
+        return orderRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found with id: " + id));
     }
 
-    private Order buildOrder(User user, OrderRequest request) {
+    private Order buildOrder(User user, OrderRequest request, String orderNumber) {
         return Order.builder()
-                .orderNumber(generateOrderNumber())
+                .orderNumber(orderNumber)
                 .user(user)
                 .status(Order.OrderStatus.PENDING)
                 .paymentMethod(Order.PaymentMethod.valueOf(request.getPaymentMethod()))
@@ -259,61 +465,90 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
 
-    private BigDecimal processOrderItems(Order order, List<OrderItemRequest> itemRequests) {
-        BigDecimal subtotal = BigDecimal.ZERO;
-        List<OrderItem> orderItems = new ArrayList<>();
+    // Returns the subtotal in minor units
+    private long processOrderItems(Order order, List<OrderItemRequest> itemRequests) {
+        Map<Long, Integer> quantities = aggregateQuantities(itemRequests);
+        Map<Long, Product> products = getProductsByIds(quantities.keySet());
+        quantities.forEach((productId, quantity) -> validateStockAvailability(products.get(productId), quantity));
 
-        for (OrderItemRequest itemRequest : itemRequests) {
-            Product product = getProductById(itemRequest.getProductId());
-            validateStockAvailability(product, itemRequest.getQuantity());
-
-            OrderItem orderItem = createOrderItem(order, product, itemRequest);
-            orderItems.add(orderItem);
-            subtotal = subtotal.add(orderItem.getTotalPrice());
+        long subtotal = 0;
+        List<OrderItem> orderItems = new ArrayList<>(itemRequests.size());
 
-            productService.decreaseStock(product.getId(), itemRequest.getQuantity());
+        for (OrderItemRequest itemRequest : itemRequests) {
+            Product product = products.get(itemRequest.getProductId());
+            long lineTotal = pricingEngine.lineTotal(
+                    PricingEngine.toMinor(product.getPrice()), itemRequest.getQuantity(), 0);
+            orderItems.add(createOrderItem(order, product, itemRequest, lineTotal));
+            subtotal += lineTotal;
         }
 
+        // Reserve stock for every line in one statement; fails the whole order if any line is short
+        productService.reserveStock(quantities);
+
         order.setOrderItems(orderItems);
         return subtotal;
     }
 
-    private Product getProductById(Long productId) {
-        return productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product not found: " + productId));
+    private Map<Long, Integer> aggregateQuantities(List<OrderItemRequest> itemRequests) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest itemRequest : itemRequests) {
+            quantities.merge(itemRequest.getProductId(), itemRequest.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private Map<Long, Product> getProductsByIds(Collection<Long> productIds) {
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        for (Long productId : productIds) {
+            if (!products.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product not found: " + productId);
+            }
+        }
+        return products;
     }
 
     private void validateStockAvailability(Product product, Integer requestedQuantity) {
+        if (product.getStatus() == Product.ProductStatus.INACTIVE || Boolean.TRUE.equals(product.getIsDeleted())) {
+            throw new BusinessException("Product is not available: " + product.getProductName());
+        }
         if (product.getStockQuantity() < requestedQuantity) {
             throw new BusinessException("Insufficient stock for product: " + product.getProductName());
         }
     }
 
-    private OrderItem createOrderItem(Order order, Product product, OrderItemRequest request) {
-        OrderItem orderItem = OrderItem.builder()
+    private OrderItem createOrderItem(Order order, Product product, OrderItemRequest request, long lineTotal) {
+        return OrderItem.builder()
                 .order(order)
                 .product(product)
                 .quantity(request.getQuantity())
                 .unitPrice(product.getPrice())
                 .discountAmount(BigDecimal.ZERO)
+                .totalPrice(PricingEngine.toAmount(lineTotal))
                 .build();
-
-        orderItem.calculateTotalPrice();
-        return orderItem;
     }
 
-    private void calculateOrderAmounts(Order order, OrderRequest request) {
-        order.setTaxAmount(order.getSubtotal().multiply(taxRate));
-        order.setShippingFee(calculateShippingFee(request));
-
+    private void calculateOrderAmounts(Order order, OrderRequest request, long subtotal) {
+        long discount = 0;
         if (request.getCouponCode() != null) {
-            BigDecimal discount = applyCoupon(request.getCouponCode(), order.getSubtotal());
-            order.setDiscountAmount(discount);
-        } else {
-            order.setDiscountAmount(BigDecimal.ZERO);
+            discount = PricingEngine.toMinor(couponService.redeem(request.getCouponCode(), order.getUser().getId(),
+                    PricingEngine.toAmount(subtotal), order.getOrderItems()));
         }
 
-        order.calculateTotalAmount();
+        long shippingFee = shippingFeeFor(request.getSubtotal(), order.getShippingMethod());
+        pricingEngine.price(subtotal, shippingFee, discount).applyTo(order);
+    }
+
+    // Free shipping is judged on the subtotal the client declared, as before; without one the flat fee applies
+    private long shippingFeeFor(BigDecimal declaredSubtotal, Order.ShippingMethod shippingMethod) {
+        return declaredSubtotal != null
+                ? pricingEngine.shippingFee(PricingEngine.toMinor(declaredSubtotal), shippingMethod)
+                : pricingEngine.shippingFee(shippingMethod);
+    }
+
+    private Order.ShippingMethod shippingMethodOf(String shippingMethod) {
+        return shippingMethod != null ? Order.ShippingMethod.valueOf(shippingMethod) : Order.ShippingMethod.STANDARD;
     }
 
     private void updateOrderForNewStatus(Order order, OrderStatusUpdateRequest request) {
@@ -333,67 +568,51 @@ public class OrderServiceImpl implements OrderService {
                 order.setCancelledDate(LocalDateTime.now());
                 order.setCancellationReason(request.getCancellationReason());
                 restoreStock(order);
+                if (order.getCouponCode() != null) {
+                    couponService.release(order.getCouponCode(), order.getUser().getId());
+                }
                 break;
         }
     }
 
-    private Page<Order> getOrdersWithFilters(Order.OrderStatus status, LocalDate startDate, LocalDate endDate, Pageable pageable) {
-        if (startDate != null && endDate != null) {
-            return orderRepository.findOrdersBetweenDates(
-                    startDate.atStartOfDay(),
-                    endDate.atTime(23, 59, 59),
-                    pageable
-            );
-        } else if (status != null) {
-            return orderRepository.findByStatus(status, pageable);
-        } else {
-            return orderRepository.findAll(pageable);
-        }
-    }
-
-    private LocalDateTime getStartDateTime(LocalDate startDate) {
-        return startDate != null ? startDate.atStartOfDay() : LocalDateTime.now().minusMonths(1);
-    }
-
-    private LocalDateTime getEndDateTime(LocalDate endDate) {
-        return endDate != null ? endDate.atTime(23, 59, 59) : LocalDateTime.now();
+    private OrderBatchStatusUpdateResponse.Result batchFailure(Long orderId, String orderNumber,
+                                                               Order.OrderStatus previousStatus, String message) {
+        return OrderBatchStatusUpdateResponse.Result.builder()
+                .orderId(orderId)
+                .orderNumber(orderNumber)
+                .success(false)
+                .previousStatus(previousStatus)
+                .message(message)
+                .build();
     }
 
-    private void populateRevenueStatistics(Map<String, Object> stats, LocalDateTime start, LocalDateTime end) {
-        List<Object[]> revenueData = orderRepository.getRevenueByDateRange(start, end);
+    // start and end are inclusive days
+    private void populateRevenueStatistics(Map<String, Object> stats, LocalDate start, LocalDate end) {
+        // Daily figures come from the rollup table: one row per day instead of a scan over orders
+        List<Object[]> revenueData = rollupRepository.getRevenueByDateRange(start, end);
         stats.put("revenueByDate", revenueData);
 
-        Page<Order> orders = orderRepository.findOrdersBetweenDates(start, end, Pageable.unpaged());
-        BigDecimal totalRevenue = calculateTotalRevenue(orders.getContent());
+        // Count and paid revenue come from the same rollup, so archived orders are counted here as well
+        Object[] summary = rollupRepository.getOrderSummaryByDateRange(start, end).get(0);
+        long totalOrders = ((Number) summary[0]).longValue();
+        BigDecimal totalRevenue = new BigDecimal(summary[1].toString());
 
         stats.put("totalRevenue", totalRevenue);
-        stats.put("totalOrders", orders.getTotalElements());
-        stats.put("averageOrderValue", calculateAverageOrderValue(totalRevenue, orders.getTotalElements()));
+        stats.put("totalOrders", totalOrders);
+        stats.put("averageOrderValue", calculateAverageOrderValue(totalRevenue, totalOrders));
     }
 
     private void populateOrderStatistics(Map<String, Object> stats) {
-        List<Object[]> statusData = orderRepository.countOrdersByStatus();
+        List<Object[]> statusData = rollupRepository.countOrdersByStatus();
         stats.put("ordersByStatus", statusData);
     }
 
-    private BigDecimal calculateTotalRevenue(List<Order> orders) {
-        return orders.stream()
-                .filter(o -> o.getPaymentStatus() == Order.PaymentStatus.PAID)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
     private BigDecimal calculateAverageOrderValue(BigDecimal totalRevenue, long orderCount) {
         return orderCount > 0
                 ? totalRevenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP)
                 : BigDecimal.ZERO;
     }
 
-    private String generateOrderNumber() {
-        return "ORD-" + System.currentTimeMillis() + "-" +
-                UUID.randomUUID().toString().substring(0, 4).toUpperCase();
-    }
-
     private ShippingAddress mapToShippingAddress(ShippingAddressRequest request) {
         return ShippingAddress.builder()
                 .recipientName(request.getRecipientName())
@@ -422,22 +641,29 @@ public class OrderServiceImpl implements OrderService {
         return CANCELLABLE_STATUSES.contains(order.getStatus());
     }
 
+    // Stock goes back as a relative increment; loaded product quantities may already be stale
     private void restoreStock(Order order) {
+        Map<Long, Integer> quantities = new TreeMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            productService.updateStock(item.getProduct().getId(),
-                    item.getProduct().getStockQuantity() + item.getQuantity());
+            quantities.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
         }
+        productService.releaseStock(quantities);
     }
 
+    // Emails go through the outbox so they are only sent if the order transaction commits
     private void sendOrderConfirmationEmail(Order order) {
-        Map<String, Object> variables = Map.of(
-                "orderNumber", order.getOrderNumber(),
-                "customerName", order.getUser().getFullName(),
-                "totalAmount", order.getTotalAmount(),
-                "orderItems", order.getOrderItems()
-        );
-
-        emailService.sendTemplatedEmail(
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("orderNumber", order.getOrderNumber());
+        variables.put("customerName", order.getUser().getFullName());
+        variables.put("totalAmount", order.getTotalAmount());
+        variables.put("orderItems", order.getOrderItems().stream()
+                .map(item -> Map.of(
+                        "productName", item.getProduct().getProductName(),
+                        "quantity", item.getQuantity(),
+                        "totalPrice", item.getTotalPrice()))
+                .toList());
+
+        emailOutboxService.enqueue(
                 order.getUser().getEmail(),
                 "Order Confirmation - " + order.getOrderNumber(),
                 "email/order-confirmation",
@@ -446,14 +672,14 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private void sendStatusUpdateEmail(Order order) {
-        Map<String, Object> variables = Map.of(
-                "orderNumber", order.getOrderNumber(),
-                "customerName", order.getUser().getFullName(),
-                "status", order.getStatus(),
-                "trackingNumber", order.getTrackingNumber()
-        );
-
-        emailService.sendTemplatedEmail(
+        // Tracking number is often still null, which Map.of rejects
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("orderNumber", order.getOrderNumber());
+        variables.put("customerName", order.getUser().getFullName());
+        variables.put("status", order.getStatus());
+        variables.put("trackingNumber", order.getTrackingNumber());
+
+        emailOutboxService.enqueue(
                 order.getUser().getEmail(),
                 "Order Status Update - " + order.getOrderNumber(),
                 "email/order-status-update",
@@ -462,6 +688,111 @@ public class OrderServiceImpl implements OrderService {
     }
 
     // Mapping methods
+    private Page<OrderResponse> mapToOrderResponsePage(Page<Order> orders) {
+        // Users come with the page query; items and products are loaded for the whole page in one
+        // statement, so mapping does not fire lazy loads per order and per item
+        if (orders.hasContent()) {
+            orderRepository.findWithItemsByIdIn(orders.map(Order::getId).getContent());
+        }
+        return orders.map(this::mapToOrderResponse);
+    }
+
+    private Window<OrderResponse> mapToOrderResponseWindow(Window<Order> orders) {
+        if (!orders.isEmpty()) {
+            orderRepository.findWithItemsByIdIn(orders.map(Order::getId).getContent());
+        }
+        return orders.map(this::mapToOrderResponse);
+    }
+
+    private Page<Order> findUserOrders(Long userId, Order.OrderStatus status, Pageable pageable) {
+        return status == null
+                ? orderRepository.findWithUserByUserId(userId, pageable)
+                : orderRepository.findWithUserByUserIdAndStatus(userId, status, pageable);
+    }
+
+    // Only finished orders are archived, so open orders older than archived ones stay live and neither tier
+    // is ahead of the other in any sort. Each tier is read up to the end of the requested page in the requested
+    // order (id breaks ties), the two are merged in memory and the page is cut from the merge. Deep pages read
+    // more rows; long histories are better walked with the keyset variant.
+    private Page<OrderResponse> mergeArchivedOrders(Long userId, Order.OrderStatus status, Pageable pageable,
+                                                    long archivedTotal) {
+        Sort sort = pageable.getSort().getOrderFor("id") != null
+                ? pageable.getSort()
+                : pageable.getSort().and(Sort.by(Sort.Direction.DESC, "id"));
+        Pageable head = pageable.isPaged()
+                ? PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort)
+                : Pageable.unpaged(sort);
+
+        Page<Order> live = findUserOrders(userId, status, head);
+        Slice<ArchivedOrder> archived = status == null
+                ? orderArchiveRepository.findWithUserByUserId(userId, head)
+                : orderArchiveRepository.findWithUserByUserIdAndStatus(userId, status, head);
+
+        List<Object> merged = new ArrayList<>(live.getNumberOfElements() + archived.getNumberOfElements());
+        merged.addAll(live.getContent());
+        merged.addAll(archived.getContent());
+        merged.sort(comparatorFor(sort));
+        int from = (int) Math.min(merged.size(), pageable.isPaged() ? pageable.getOffset() : 0);
+        int to = pageable.isPaged() ? Math.min(merged.size(), from + pageable.getPageSize()) : merged.size();
+        List<Object> rows = merged.subList(from, to);
+
+        // Items and products for the page, one statement per tier
+        List<Long> liveIds = rows.stream().filter(Order.class::isInstance).map(row -> ((Order) row).getId()).toList();
+        List<Long> archivedIds = rows.stream().filter(ArchivedOrder.class::isInstance)
+                .map(row -> ((ArchivedOrder) row).getId()).toList();
+        if (!liveIds.isEmpty()) {
+            orderRepository.findWithItemsByIdIn(liveIds);
+        }
+        if (!archivedIds.isEmpty()) {
+            orderArchiveRepository.findWithItemsByIdIn(archivedIds);
+        }
+        List<OrderResponse> content = rows.stream()
+                .map(row -> row instanceof Order order
+                        ? mapToOrderResponse(order)
+                        : mapToOrderResponse((ArchivedOrder) row))
+                .toList();
+        return new PageImpl<>(content, pageable, live.getTotalElements() + archivedTotal);
+    }
+
+    // Orders the way the database does for the same Sort: enums are stored as strings and nulls sort lowest
+    @SuppressWarnings("unchecked")
+    private Comparator<Object> comparatorFor(Sort sort) {
+        Comparator<Object> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> byProperty = Comparator.comparing(row -> {
+                Object value = new BeanWrapperImpl(row).getPropertyValue(order.getProperty());
+                if (value instanceof Enum<?> constant) {
+                    value = constant.name();
+                }
+                if (order.isIgnoreCase() && value instanceof String text) {
+                    value = text.toLowerCase(Locale.ROOT);
+                }
+                return (Comparable<Object>) value;
+            }, Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    private List<OrderResponse> mapArchivedOrders(List<ArchivedOrder> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        orderArchiveRepository.findWithItemsByIdIn(orders.stream().map(ArchivedOrder::getId).toList());
+        return orders.stream().map(this::mapToOrderResponse).toList();
+    }
+
+    private ScrollPosition keysetPosition(OrderResponse order) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("createdAt", order.getCreatedAt());
+        keys.put("id", order.getId());
+        return ScrollPosition.forward(keys);
+    }
+
+    private OrderResponse mapToOrderResponse(ArchivedOrder order) {
+        return mapToOrderResponse(order.toOrder());
+    }
+
     private OrderResponse mapToOrderResponse(Order order) {
         return OrderResponse.builder()
                 .id(order.getId())
@@ -1,5 +1,6 @@
 package com.ddd.demo.service.impl;
 
+import com.ddd.demo.common.constants.AppConstants;
 import com.ddd.demo.common.exception.BusinessException;
 import com.ddd.demo.common.exception.ResourceNotFoundException;
 import com.ddd.demo.dto.product.ProductRequest;
@@ -8,17 +9,25 @@ import com.ddd.demo.dto.product.ProductStatsResponse;
 import com.ddd.demo.entity.product.Product;
 import com.ddd.demo.repository.ProductRepository;
 import com.ddd.demo.service.ProductService;
+import com.ddd.demo.service.inventory.ShardedInventoryEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,6 +38,8 @@ import java.util.stream.Collectors;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository productRepository;
+    private final Optional<ShardedInventoryEngine> inventoryEngine;
+    private final CacheManager cacheManager;
 
     @Override
     @Transactional
@@ -76,7 +87,10 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    @CacheEvict(value = "products", allEntries = true)
+    @Caching(evict = {
+            @CacheEvict(value = "products", allEntries = true),
+            @CacheEvict(value = AppConstants.Cache.PRODUCT_SNAPSHOTS_CACHE, key = "#id")
+    })
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
@@ -124,7 +138,7 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    @CacheEvict(value = "products", key = "#id")
+    @CacheEvict(value = {"products", AppConstants.Cache.PRODUCT_SNAPSHOTS_CACHE}, key = "#id")
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
@@ -132,38 +146,42 @@ public class ProductServiceImpl implements ProductService {
         product.setStatus(Product.ProductStatus.INACTIVE);
         product.setIsDeleted(true);
         productRepository.save(product);
+        // Counters already in memory would otherwise keep taking reservations
+        inventoryEngine.ifPresent(engine -> afterCommit(() -> engine.setSellable(id, false)));
 
         log.info("Soft deleted product: {}", product.getProductName());
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "products", key = "#id")
+    @CacheEvict(value = {"products", AppConstants.Cache.PRODUCT_SNAPSHOTS_CACHE}, key = "#id")
     public void updateProductStatus(Long id, Product.ProductStatus status) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
 
         product.setStatus(status);
         productRepository.save(product);
+        boolean sellable = status != Product.ProductStatus.INACTIVE && !Boolean.TRUE.equals(product.getIsDeleted());
+        inventoryEngine.ifPresent(engine -> afterCommit(() -> engine.setSellable(id, sellable)));
 
         log.info("Updated product {} status to: {}", product.getProductName(), status);
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = "products", key = "#productId")
+    @CacheEvict(value = {"products", AppConstants.Cache.PRODUCT_SNAPSHOTS_CACHE}, key = "#productId")
     public void updateStock(Long productId, Integer quantity) {
+        if (inventoryEngine.isPresent()) {
+            inventoryEngine.get().setStock(productId, quantity);
+            log.info("Updated stock for product {} to: {}", productId, quantity);
+            return;
+        }
+
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
 
-        product.setStockQuantity(quantity);
-
         // Update status based on stock
-        if (quantity == 0) {
-            product.setStatus(Product.ProductStatus.OUT_OF_STOCK);
-        } else if (product.getStatus() == Product.ProductStatus.OUT_OF_STOCK) {
-            product.setStatus(Product.ProductStatus.ACTIVE);
-        }
+        product.updateStockQuantity(quantity);
 
         productRepository.save(product);
         log.info("Updated stock for product {} to: {}", product.getProductName(), quantity);
@@ -172,19 +190,80 @@ public class ProductServiceImpl implements ProductService {
     @Override
     @Transactional
     public void decreaseStock(Long productId, Integer quantity) {
-        int updatedRows = productRepository.decreaseStock(productId, quantity);
-        if (updatedRows == 0) {
+        reserveStock(Map.of(productId, quantity));
+        log.info("Decreased stock for product {} by: {}", productId, quantity);
+    }
+
+    @Override
+    @Transactional
+    public void reserveStock(Map<Long, Integer> quantities) {
+        if (inventoryEngine.isPresent()) {
+            // Reserve against in-memory shards; deltas are written back to products in batches
+            inventoryEngine.get().reserveAll(quantities);
+            return;
+        }
+
+        // One conditional UPDATE reserves every line and marks lines that hit zero as OUT_OF_STOCK
+        int reservedRows = productRepository.reserveStock(quantities);
+        if (reservedRows != quantities.size()) {
             throw new BusinessException("Insufficient stock or product not found");
         }
 
-        // Check and update status if out of stock
-        Product product = productRepository.findById(productId).orElseThrow();
-        if (product.getStockQuantity() == 0) {
-            product.setStatus(Product.ProductStatus.OUT_OF_STOCK);
-            productRepository.save(product);
+        log.info("Reserved stock for {} products", reservedRows);
+    }
+
+    @Override
+    @Transactional
+    public void releaseStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        if (quantities.values().stream().anyMatch(quantity -> quantity == null || quantity <= 0)) {
+            throw new BusinessException("Released quantities must be positive");
         }
 
-        log.info("Decreased stock for product {} by: {}", productId, quantity);
+        if (inventoryEngine.isPresent()) {
+            // Shards are not transactional; hand units back only once the release is committed
+            ShardedInventoryEngine engine = inventoryEngine.get();
+            afterCommit(() -> quantities.forEach(engine::release));
+        } else {
+            // One relative UPDATE adds the units back and reactivates OUT_OF_STOCK products
+            int releasedRows = productRepository.restoreStock(quantities);
+            if (releasedRows != quantities.size()) {
+                log.warn("Released stock for {} of {} products, the others no longer exist",
+                        releasedRows, quantities.size());
+            }
+            log.info("Released stock for {} products", releasedRows);
+        }
+
+        // getProductBySku caches under the SKU, so those keys go along with the ids
+        List<String> skus = productRepository.findSkusByIdIn(quantities.keySet());
+
+        // Evict after commit so a concurrent read cannot cache the pre-release stock again
+        afterCommit(() -> {
+            Cache products = cacheManager.getCache("products");
+            if (products != null) {
+                quantities.keySet().forEach(products::evict);
+                skus.forEach(products::evict);
+            }
+            Cache snapshots = cacheManager.getCache(AppConstants.Cache.PRODUCT_SNAPSHOTS_CACHE);
+            if (snapshots != null) {
+                quantities.keySet().forEach(snapshots::evict);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     @Override
@@ -0,0 +1,396 @@
+package com.ddd.demo.service.inventory;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.common.exception.ResourceNotFoundException;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory stock reservation for hot products.
+ * <p>
+ * Each product's available stock is split across lock-free shards so concurrent checkouts for the
+ * same SKU CAS different counters instead of queueing on one row lock. A shard is never allowed to
+ * go below zero, so the sum of all shards can never be oversold. Reservations are tracked as
+ * pending decrements per shard and written back to {@code products} in small batches.
+ * <p>
+ * The engine is node-local: enable it only when a single instance owns checkout for the catalog.
+ * <p>
+ * Durability: a reservation is acknowledged, and its order committed, before the decrement
+ * reaches {@code products}. If the process dies without a clean shutdown, decrements not yet
+ * flushed (at most about one {@code app.inventory.engine.flush-interval-ms} of checkouts) are
+ * lost, the stored stock reads higher than what is left, and those units can be sold again
+ * after restart. Reconcile stock against recent orders after a crash, or leave the engine off
+ * where that window is not acceptable.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.inventory.engine.enabled", havingValue = "true")
+public class ShardedInventoryEngine {
+
+    private final ProductRepository productRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.inventory.engine.shards:16}")
+    private int shardCount;
+
+    @Value("${app.inventory.engine.flush-batch-size:50}")
+    private int flushBatchSize;
+
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+
+    // Serializes write-backs with each other and with the start of absolute stock updates;
+    // never held across a database call other than the flush's own and never taken on the reservation path
+    private final ReentrantLock writeBackLock = new ReentrantLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromDatabase() {
+        counters.clear();
+        for (Object[] row : productRepository.findAllStockLevels()) {
+            counters.put((Long) row[0], new StockCounter(shardCount, (Integer) row[1]));
+        }
+        log.info("Inventory engine loaded stock for {} products across {} shards", counters.size(), shardCount);
+    }
+
+    public boolean tryReserve(Long productId, int quantity) {
+        StockCounter counter = getCounter(productId);
+        return counter != null && counter.isSellable() && counter.tryTake(quantity);
+    }
+
+    // Reserve every line or none; reservations are handed back if the surrounding transaction rolls back
+    public void reserveAll(Map<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!tryReserve(entry.getKey(), entry.getValue())) {
+                reserved.forEach(this::release);
+                throw new BusinessException("Insufficient stock or product not found");
+            }
+            reserved.put(entry.getKey(), entry.getValue());
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        reserved.forEach(ShardedInventoryEngine.this::release);
+                    }
+                }
+            });
+        }
+    }
+
+    public void release(Long productId, int quantity) {
+        StockCounter counter = getCounter(productId);
+        if (counter == null) {
+            log.warn("Cannot release {} units for unknown product {}", quantity, productId);
+            return;
+        }
+        counter.give(quantity);
+    }
+
+    /**
+     * Stop or resume reservations for a product that was deactivated, deleted or reactivated.
+     * Only counters already in memory need it: products loaded later go through the same filter
+     * as {@code reserveStock}. Pending decrements keep flushing either way.
+     */
+    public void setSellable(Long productId, boolean sellable) {
+        StockCounter counter = counters.get(productId);
+        if (counter != null) {
+            counter.setSellable(sellable);
+        }
+    }
+
+    public long getAvailable(Long productId) {
+        StockCounter counter = getCounter(productId);
+        return counter != null ? counter.available() : 0;
+    }
+
+    /**
+     * Set an absolute stock level. The row is written in the caller's transaction and the shards
+     * follow once it commits. Decrements that are pending at that point are treated as overwritten,
+     * matching what an absolute UPDATE on {@code products} would do; reservations made afterwards
+     * are written back on top of the new value. Flushes skip the product until then, so the stored
+     * stock the shards are adjusted against cannot move underneath.
+     */
+    public void setStock(Long productId, int quantity) {
+        StockCounter counter = getCounter(productId);
+        if (counter == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Wait out a flush that may already have drained this product, then keep the next ones off it
+            writeBackLock.lock();
+            try {
+                counter.beginSet();
+            } finally {
+                writeBackLock.unlock();
+            }
+
+            int previous;
+            try {
+                // The row lock makes concurrent updates of one product see each other's value
+                Product product = productRepository.findByIdForUpdate(productId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + productId));
+                previous = product.getStockQuantity();
+                product.updateStockQuantity(quantity);
+                productRepository.save(product);
+            } catch (RuntimeException e) {
+                counter.endSet();
+                throw e;
+            }
+
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                finishSet(productId, counter, quantity - previous);
+                return;
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int completion) {
+                    if (completion == STATUS_COMMITTED) {
+                        finishSet(productId, counter, quantity - previous);
+                    } else {
+                        counter.endSet();
+                    }
+                }
+            });
+        });
+    }
+
+    // Move the shards by the committed change; pending decrements are drained as overwritten
+    private void finishSet(Long productId, StockCounter counter, long change) {
+        try {
+            long shortfall = counter.adjust(change + counter.drainPending());
+            if (shortfall > 0) {
+                log.warn("Stock for product {} set below in-flight reservations by {} units", productId, shortfall);
+            }
+        } finally {
+            counter.endSet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.engine.flush-interval-ms:200}")
+    public void flush() {
+        writeBackLock.lock();
+        try {
+            Map<Long, Integer> batch = new LinkedHashMap<>();
+            for (Map.Entry<Long, StockCounter> entry : counters.entrySet()) {
+                if (entry.getValue().isBeingSet()) {
+                    // Left pending; an absolute update in progress settles it when it commits
+                    continue;
+                }
+                long decrement = entry.getValue().drainPending();
+                if (decrement != 0) {
+                    batch.put(entry.getKey(), Math.toIntExact(decrement));
+                }
+                if (batch.size() >= flushBatchSize) {
+                    writeBack(batch);
+                    batch = new LinkedHashMap<>();
+                }
+            }
+            writeBack(batch);
+        } finally {
+            writeBackLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void writeBack(Map<Long, Integer> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            requiresNew().executeWithoutResult(status -> productRepository.applyStockDeltas(batch));
+            log.debug("Wrote back stock deltas for {} products", batch.size());
+        } catch (RuntimeException e) {
+            // Keep the deltas pending so the next flush retries them
+            log.error("Failed to write back stock deltas for {} products", batch.size(), e);
+            batch.forEach((productId, decrement) -> counters.get(productId).restorePending(decrement));
+        }
+    }
+
+    private StockCounter getCounter(Long productId) {
+        StockCounter counter = counters.get(productId);
+        if (counter != null) {
+            return counter;
+        }
+
+        // Products created after startup are loaded on first use
+        return productRepository.findStockQuantityById(productId)
+                .map(stock -> counters.computeIfAbsent(productId, id -> new StockCounter(shardCount, stock)))
+                .orElse(null);
+    }
+
+    private TransactionTemplate requiresNew() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    /**
+     * Available units and pending decrements of one product, striped across shards.
+     * Slots are spaced one cache line apart so neighbouring shards do not false-share.
+     */
+    static final class StockCounter {
+
+        private static final int STRIDE = 8;
+
+        private final int shards;
+        private final AtomicLongArray available;
+        private final AtomicLongArray pending;
+        private final AtomicInteger settingStock = new AtomicInteger();
+        private volatile boolean sellable = true;
+
+        StockCounter(int shards, long initialStock) {
+            this.shards = shards;
+            this.available = new AtomicLongArray(shards * STRIDE);
+            this.pending = new AtomicLongArray(shards * STRIDE);
+
+            long perShard = initialStock / shards;
+            for (int i = 0; i < shards; i++) {
+                available.set(i * STRIDE, perShard);
+            }
+            available.addAndGet(0, initialStock - perShard * shards);
+        }
+
+        boolean tryTake(int quantity) {
+            int start = ThreadLocalRandom.current().nextInt(shards);
+
+            // Fast path: one shard covers the whole quantity
+            for (int i = 0; i < shards; i++) {
+                int slot = ((start + i) % shards) * STRIDE;
+                long current;
+                while ((current = available.get(slot)) >= quantity) {
+                    if (available.compareAndSet(slot, current, current - quantity)) {
+                        pending.addAndGet(slot, quantity);
+                        return true;
+                    }
+                }
+            }
+
+            // Slow path: gather from several shards, hand everything back if the total falls short
+            long[] taken = new long[shards];
+            long remaining = quantity;
+            for (int i = 0; i < shards && remaining > 0; i++) {
+                int shard = (start + i) % shards;
+                int slot = shard * STRIDE;
+                long current;
+                while ((current = available.get(slot)) > 0) {
+                    long take = Math.min(current, remaining);
+                    if (available.compareAndSet(slot, current, current - take)) {
+                        taken[shard] = take;
+                        remaining -= take;
+                        break;
+                    }
+                }
+            }
+
+            if (remaining == 0) {
+                pending.addAndGet(start * STRIDE, quantity);
+                return true;
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                if (taken[shard] > 0) {
+                    available.addAndGet(shard * STRIDE, taken[shard]);
+                }
+            }
+            return false;
+        }
+
+        void give(int quantity) {
+            int slot = ThreadLocalRandom.current().nextInt(shards) * STRIDE;
+            available.addAndGet(slot, quantity);
+            pending.addAndGet(slot, -quantity);
+        }
+
+        // Add (or take back, as far as possible) units; returns the units that could not be taken
+        long adjust(long delta) {
+            if (delta >= 0) {
+                available.addAndGet(0, delta);
+                return 0;
+            }
+
+            long remaining = -delta;
+            for (int i = 0; i < shards && remaining > 0; i++) {
+                int slot = i * STRIDE;
+                long current;
+                while ((current = available.get(slot)) > 0) {
+                    long take = Math.min(current, remaining);
+                    if (available.compareAndSet(slot, current, current - take)) {
+                        remaining -= take;
+                        break;
+                    }
+                }
+            }
+            return remaining;
+        }
+
+        long available() {
+            long total = 0;
+            for (int i = 0; i < shards; i++) {
+                total += available.get(i * STRIDE);
+            }
+            return total;
+        }
+
+        long drainPending() {
+            long total = 0;
+            for (int i = 0; i < shards; i++) {
+                total += pending.getAndSet(i * STRIDE, 0);
+            }
+            return total;
+        }
+
+        void restorePending(long decrement) {
+            pending.addAndGet(0, decrement);
+        }
+
+        void beginSet() {
+            settingStock.incrementAndGet();
+        }
+
+        void endSet() {
+            settingStock.decrementAndGet();
+        }
+
+        boolean isBeingSet() {
+            return settingStock.get() > 0;
+        }
+
+        void setSellable(boolean sellable) {
+            this.sellable = sellable;
+        }
+
+        boolean isSellable() {
+            return sellable;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.ddd.demo.service.invoice;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A rendered invoice: either a PDF cached on disk or a render that is written straight to the
+ * caller's stream, so the document is never held in memory as a whole.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class Invoice {
+
+    private final String orderNumber;
+    // Cached PDF; null when the invoice is rendered on demand
+    private final Path file;
+    private final Writer writer;
+
+    public static Invoice cached(String orderNumber, Path file) {
+        return new Invoice(orderNumber, file, null);
+    }
+
+    public static Invoice streamed(String orderNumber, Writer writer) {
+        return new Invoice(orderNumber, null, writer);
+    }
+
+    public boolean isCached() {
+        return file != null;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        if (file != null) {
+            Files.copy(file, out);
+        } else {
+            writer.write(out);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+}
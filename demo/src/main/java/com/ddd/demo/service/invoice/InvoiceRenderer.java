@@ -0,0 +1,57 @@
+package com.ddd.demo.service.invoice;
+
+import com.ddd.demo.dto.order.OrderResponse;
+import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+@Component
+public class InvoiceRenderer {
+
+    private static final String TEMPLATE = "invoice/order-invoice";
+
+    private final SpringTemplateEngine templateEngine;
+
+    @Value("${app.name}")
+    private String sellerName;
+
+    @Value("${app.email.support-email}")
+    private String sellerEmail;
+
+    public InvoiceRenderer() {
+        // Own engine with caching on, so the invoice template is parsed once even while
+        // spring.thymeleaf.cache is off for the web and email templates
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(true);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+    }
+
+    // Render the invoice as PDF into the given stream; the stream is left open
+    public void render(OrderResponse order, OutputStream out) throws IOException {
+        Context context = new Context();
+        context.setVariable("order", order);
+        context.setVariable("sellerName", sellerName);
+        context.setVariable("sellerEmail", sellerEmail);
+        String html = templateEngine.process(TEMPLATE, context);
+
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        builder.withHtmlContent(html, null);
+        builder.toStream(out);
+        builder.run();
+    }
+}
@@ -0,0 +1,219 @@
+package com.ddd.demo.service.order;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.common.exception.ConflictException;
+import com.ddd.demo.common.exception.ResourceNotFoundException;
+import com.ddd.demo.common.exception.TooManyRequestsException;
+import com.ddd.demo.dto.order.OrderRequest;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.OrderSubmissionResponse;
+import com.ddd.demo.dto.order.OrderSubmissionResponse.Status;
+import com.ddd.demo.service.OrderService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Accepts orders without holding a request thread or a database connection for the whole
+ * create sequence.
+ * <p>
+ * {@link #submit} reserves the order number (no database access) and puts the request on a
+ * bounded queue; a fixed number of virtual-thread workers take requests off the queue and run
+ * {@link OrderService#createOrder(Long, OrderRequest, String)}, so at most {@code concurrency}
+ * orders use a connection at once. When the queue is full the submission is rejected with
+ * {@link TooManyRequestsException} instead of queueing without limit.
+ * <p>
+ * The queue and the submission states are held in memory on the node that accepted the request:
+ * queued orders are lost if the node dies, and the status endpoint must be served by the same node
+ * (created orders are also found by number in the database). On shutdown the workers finish the
+ * queue for up to {@code shutdown-timeout}.
+ * <p>
+ * Metrics: {@code order.async.queued} (queue size), {@code order.async.rejected},
+ * {@code order.async.completed} and {@code order.async.failed}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.order.async.enabled", havingValue = "true")
+public class AsyncOrderPipeline {
+
+    private static final String STATUS_URL = "/api/v1/orders/submissions/";
+    private static final long POLL_MILLIS = 100;
+
+    private final OrderService orderService;
+    private final OrderNumberGenerator orderNumberGenerator;
+    private final BlockingQueue<Submission> queue;
+    private final Cache<String, OrderSubmissionResponse> submissions;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Counter rejectedCounter;
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private volatile boolean accepting = true;
+
+    @Value("${app.order.async.concurrency:8}")
+    private int concurrency;
+
+    @Value("${app.order.async.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    @Value("${app.order.async.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    public AsyncOrderPipeline(OrderService orderService,
+                              OrderNumberGenerator orderNumberGenerator,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.order.async.queue-capacity:1000}") int queueCapacity,
+                              @Value("${app.order.async.status-ttl:1h}") Duration statusTtl) {
+        this.orderService = orderService;
+        this.orderNumberGenerator = orderNumberGenerator;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.submissions = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .build();
+        this.rejectedCounter = meterRegistry.counter("order.async.rejected");
+        this.completedCounter = meterRegistry.counter("order.async.completed");
+        this.failedCounter = meterRegistry.counter("order.async.failed");
+        meterRegistry.gaugeCollectionSize("order.async.queued", List.of(), queue);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(Thread.ofVirtual().name("order-worker-" + i).start(this::work));
+        }
+        log.info("Async order pipeline started with {} workers", concurrency);
+    }
+
+    public OrderSubmissionResponse submit(Long userId, OrderRequest request) {
+        String orderNumber = orderNumberGenerator.nextOrderNumber();
+        OrderSubmissionResponse accepted = OrderSubmissionResponse.builder()
+                .orderNumber(orderNumber)
+                .status(Status.ACCEPTED)
+                .statusUrl(STATUS_URL + orderNumber)
+                .submittedAt(LocalDateTime.now())
+                .userId(userId)
+                .build();
+
+        // Recorded first so a worker that picks the order up at once finds it
+        submissions.put(orderNumber, accepted);
+        if (!accepting || !queue.offer(new Submission(userId, request, orderNumber))) {
+            submissions.invalidate(orderNumber);
+            rejectedCounter.increment();
+            throw new TooManyRequestsException("Too many orders are being processed, please retry shortly",
+                    retryAfterSeconds);
+        }
+        return accepted;
+    }
+
+    // Submission state for the user who placed it; created orders that are no longer tracked are looked up by number
+    public Optional<OrderSubmissionResponse> getSubmission(String orderNumber, Long userId) {
+        OrderSubmissionResponse submission = submissions.getIfPresent(orderNumber);
+        if (submission != null) {
+            return userId.equals(submission.getUserId()) ? Optional.of(submission) : Optional.empty();
+        }
+
+        try {
+            OrderResponse order = orderService.getOrderByNumber(orderNumber);
+            if (order.getUser() == null || !userId.equals(order.getUser().getId())) {
+                return Optional.empty();
+            }
+            return Optional.of(OrderSubmissionResponse.builder()
+                    .orderNumber(orderNumber)
+                    .status(Status.COMPLETED)
+                    .statusUrl(STATUS_URL + orderNumber)
+                    .orderId(order.getId())
+                    .build());
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Workers see the flag, finish what is queued and exit on their own once the queue is empty
+        accepting = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (Thread worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                worker.join(Duration.ofNanos(remaining));
+            }
+        }
+
+        // Only past the deadline are workers still creating orders interrupted
+        List<Thread> stuck = workers.stream().filter(Thread::isAlive).toList();
+        if (!stuck.isEmpty()) {
+            log.warn("Async order pipeline did not drain within {}, interrupting {} workers",
+                    shutdownTimeout, stuck.size());
+            stuck.forEach(Thread::interrupt);
+            for (Thread worker : stuck) {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Async order pipeline stopped with {} orders still queued", queue.size());
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Submission submission;
+            try {
+                submission = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (submission != null) {
+                process(submission);
+            } else if (!accepting) {
+                return;
+            }
+        }
+    }
+
+    private void process(Submission submission) {
+        update(submission.orderNumber(), builder -> builder.status(Status.PROCESSING));
+        try {
+            OrderResponse order = orderService.createOrder(
+                    submission.userId(), submission.request(), submission.orderNumber());
+            update(submission.orderNumber(), builder -> builder.status(Status.COMPLETED).orderId(order.getId()));
+            completedCounter.increment();
+        } catch (BusinessException | ResourceNotFoundException | ConflictException e) {
+            update(submission.orderNumber(), builder -> builder.status(Status.FAILED).message(e.getMessage()));
+            failedCounter.increment();
+        } catch (Exception e) {
+            log.error("Async order {} failed", submission.orderNumber(), e);
+            update(submission.orderNumber(), builder -> builder.status(Status.FAILED)
+                    .message("Order could not be processed, please try again"));
+            failedCounter.increment();
+        }
+    }
+
+    private void update(String orderNumber,
+                        UnaryOperator<OrderSubmissionResponse.OrderSubmissionResponseBuilder> change) {
+        submissions.asMap().computeIfPresent(orderNumber, (number, current) -> change.apply(current.toBuilder()).build());
+    }
+
+    private record Submission(Long userId, OrderRequest request, String orderNumber) {
+    }
+}
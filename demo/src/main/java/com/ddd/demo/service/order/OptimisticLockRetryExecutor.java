@@ -0,0 +1,91 @@
+package com.ddd.demo.service.order;
+
+import com.ddd.demo.common.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs an order mutation in its own transaction and retries it when the {@code @Version} check fails.
+ * <p>
+ * Every attempt starts a fresh transaction, so the order is re-read with its current version before
+ * the change is re-applied. When called inside an existing transaction the action runs once and any
+ * conflict is left to the caller, because a retry could not see newer data in that transaction.
+ * <p>
+ * Metrics, tagged by operation: {@code order.mutation.attempts}, {@code order.mutation.conflicts},
+ * {@code order.mutation.retries} and {@code order.mutation.exhausted}; conflicts / attempts is the
+ * conflict rate.
+ */
+@Slf4j
+@Component
+public class OptimisticLockRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.order.optimistic-retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.order.optimistic-retry.backoff-ms:20}")
+    private long backoffMs;
+
+    @Value("${app.order.optimistic-retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    public OptimisticLockRetryExecutor(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            counter("order.mutation.attempts", operation).increment();
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                counter("order.mutation.conflicts", operation).increment();
+                if (attempt >= maxAttempts) {
+                    counter("order.mutation.exhausted", operation).increment();
+                    log.warn("{} gave up after {} optimistic lock conflicts", operation, attempt);
+                    throw new ConflictException("Order was modified concurrently, please try again");
+                }
+
+                counter("order.mutation.retries", operation).increment();
+                log.debug("{} hit an optimistic lock conflict, retrying (attempt {})", operation, attempt + 1);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        // Exponential backoff with full jitter so colliding writers do not retry in lockstep
+        long ceiling = Math.min(maxBackoffMs, backoffMs << Math.min(attempt - 1, 16));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying order update");
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return meterRegistry.counter(name, "operation", operation);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ddd.demo.service.order;
+
+import com.ddd.demo.common.constants.AppConstants;
+import com.ddd.demo.event.OrderChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@code orders} cache in line with committed order changes. Responses are cached under
+ * the order id and under the order number, so both keys are evicted. The {@code orderOwnership}
+ * entry only holds owner and status, so it is evicted when the status changes.
+ * <p>
+ * Eviction happens after commit, and again {@code app.cache.orders-evict-delay} later: a read that
+ * loaded the order before the commit can still put its pre-change copy back after the first
+ * eviction, and the second one removes it. Reads slower than the delay can still leave a stale
+ * entry until it expires.
+ */
+@Component
+public class OrderCacheEvictor {
+
+    private final Cache ordersCache;
+    private final Cache ownershipCache;
+    private final Executor delayedEviction;
+
+    public OrderCacheEvictor(CacheManager cacheManager,
+                             @Value("${app.cache.orders-evict-delay:1s}") Duration evictDelay) {
+        this.ordersCache = cacheManager.getCache(AppConstants.Cache.ORDERS_CACHE);
+        this.ownershipCache = cacheManager.getCache(AppConstants.Cache.ORDER_OWNERSHIP_CACHE);
+        this.delayedEviction = CompletableFuture.delayedExecutor(evictDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.isCreated()) {
+            return;
+        }
+
+        evict(event);
+        delayedEviction.execute(() -> evict(event));
+    }
+
+    private void evict(OrderChangedEvent event) {
+        if (ordersCache != null) {
+            ordersCache.evict(event.getOrderId());
+            ordersCache.evict(event.getAfter().getOrderNumber());
+        }
+        if (ownershipCache != null && event.getBefore().getStatus() != event.getAfter().getStatus()) {
+            ownershipCache.evict(event.getOrderId());
+        }
+    }
+}
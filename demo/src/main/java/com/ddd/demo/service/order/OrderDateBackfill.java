@@ -0,0 +1,33 @@
+package com.ddd.demo.service.order;
+
+import com.ddd.demo.repository.OrderArchiveRepository;
+import com.ddd.demo.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills {@code orderDate} on live and archived orders written before the column was added, so
+ * date-range summaries and rollup rebuilds, which read it, do not drop or mis-bucket older orders.
+ * New orders set it on insert, so once every row is filled these updates change nothing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderDateBackfill {
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int filled = orderRepository.backfillOrderDates() + orderArchiveRepository.backfillOrderDates();
+        if (filled > 0) {
+            log.info("Backfilled orderDate for {} orders", filled);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.ddd.demo.service.order;
+
+import com.ddd.demo.dto.order.OrderStatusEvent;
+import com.ddd.demo.event.OrderChangedEvent;
+import com.ddd.demo.event.OrderSnapshot;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes committed status, payment and tracking changes to clients watching an order over SSE.
+ * <p>
+ * An open stream holds no thread: each watcher has a small bounded queue, and a virtual thread is
+ * started to drain it only while there is something to send. The committing thread just serializes
+ * the event once and offers it to the queues. A watcher that falls behind loses its oldest
+ * events rather than holding memory; every event carries the full current state, so the latest
+ * one is all a client needs. Idle streams get a comment line every heartbeat interval so that
+ * proxies keep them open and dead connections are detected.
+ * <p>
+ * Metrics: {@code order.events.watchers} (open streams) and {@code order.events.dropped}.
+ */
+@Slf4j
+@Component
+public class OrderEventStream {
+
+    private static final String EVENT_NAME = "order-status";
+
+    private final Map<Long, Set<Watcher>> watchers = new ConcurrentHashMap<>();
+    private final AtomicInteger watcherCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper;
+    private final Counter droppedCounter;
+
+    @Value("${app.order.events.buffer-size:16}")
+    private int bufferSize;
+
+    @Value("${app.order.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    public OrderEventStream(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.droppedCounter = meterRegistry.counter("order.events.dropped");
+        meterRegistry.gauge("order.events.watchers", watcherCount);
+    }
+
+    // Open a stream for the order; the watcher is registered before the current state is read, so no change is lost
+    public SseEmitter subscribe(Long orderId, Supplier<OrderStatusEvent> current) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        attach(orderId, emitter, current);
+        return emitter;
+    }
+
+    // Stream the order's changes to an emitter created by the caller; current must read committed state, not a cache
+    public void attach(Long orderId, SseEmitter emitter, Supplier<OrderStatusEvent> current) {
+        Watcher watcher = new Watcher(orderId, emitter, bufferSize);
+        watchers.computeIfAbsent(orderId, id -> ConcurrentHashMap.newKeySet()).add(watcher);
+        watcherCount.incrementAndGet();
+
+        emitter.onCompletion(() -> remove(watcher));
+        emitter.onTimeout(() -> remove(watcher));
+        emitter.onError(e -> remove(watcher));
+
+        // A change committed while the state is read is both in the state and queued after it; the latest event wins
+        OrderStatusEvent state;
+        try {
+            state = current.get();
+        } catch (RuntimeException e) {
+            remove(watcher);
+            throw e;
+        }
+        watcher.enqueue(toSseEvent(state));
+    }
+
+    public int getWatcherCount() {
+        return watcherCount.get();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Set<Watcher> orderWatchers = watchers.get(event.getOrderId());
+        if (orderWatchers == null || orderWatchers.isEmpty() || !isVisibleChange(event)) {
+            return;
+        }
+
+        Set<DataWithMediaType> sseEvent = toSseEvent(OrderStatusEvent.of(event.getAfter()));
+        orderWatchers.forEach(watcher -> watcher.enqueue(sseEvent));
+    }
+
+    @Scheduled(fixedRateString = "${app.order.events.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        watchers.values().forEach(orderWatchers -> orderWatchers.forEach(watcher -> watcher.heartbeat(heartbeat)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchers.values().forEach(orderWatchers -> orderWatchers.forEach(watcher -> watcher.emitter.complete()));
+        senders.shutdown();
+    }
+
+    private boolean isVisibleChange(OrderChangedEvent event) {
+        OrderSnapshot before = event.getBefore();
+        OrderSnapshot after = event.getAfter();
+        return before == null
+                || before.getStatus() != after.getStatus()
+                || before.getPaymentStatus() != after.getPaymentStatus()
+                || !Objects.equals(before.getTrackingNumber(), after.getTrackingNumber());
+    }
+
+    // Built once per change and shared by every watcher's queue
+    private Set<DataWithMediaType> toSseEvent(OrderStatusEvent payload) {
+        try {
+            return SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .data(objectMapper.writeValueAsString(payload), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order status event", e);
+        }
+    }
+
+    private void remove(Watcher watcher) {
+        if (!watcher.closed.compareAndSet(false, true)) {
+            return;
+        }
+        watchers.computeIfPresent(watcher.orderId, (id, orderWatchers) -> {
+            orderWatchers.remove(watcher);
+            return orderWatchers.isEmpty() ? null : orderWatchers;
+        });
+        watcherCount.decrementAndGet();
+    }
+
+    private final class Watcher {
+
+        private final Long orderId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Watcher(Long orderId, SseEmitter emitter, int capacity) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        void enqueue(Set<DataWithMediaType> sseEvent) {
+            while (!queue.offer(sseEvent)) {
+                if (queue.poll() != null) {
+                    droppedCounter.increment();
+                }
+            }
+            scheduleDrain();
+        }
+
+        void heartbeat(Set<DataWithMediaType> heartbeat) {
+            // Only idle streams need one; a busy stream proves the connection on its own
+            if (queue.isEmpty() && queue.offer(heartbeat)) {
+                scheduleDrain();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> next;
+                while (!closed.get() && (next = queue.poll()) != null) {
+                    emitter.send(next);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away or the stream already completed
+                log.debug("Closing order event stream for order {}: {}", orderId, e.getMessage());
+                remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+
+            // An event may have arrived after the last poll but before the flag was cleared
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+}
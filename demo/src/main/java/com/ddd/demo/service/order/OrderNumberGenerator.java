@@ -0,0 +1,7 @@
+package com.ddd.demo.service.order;
+
+public interface OrderNumberGenerator {
+
+    // Generate a unique order number (at most 20 characters)
+    String nextOrderNumber();
+}
@@ -0,0 +1,35 @@
+package com.ddd.demo.service.order;
+
+import com.ddd.demo.common.constants.AppConstants;
+import com.ddd.demo.dto.order.OrderOwnership;
+import com.ddd.demo.repository.OrderArchiveRepository;
+import com.ddd.demo.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Owner and status of an order for the {@code @PreAuthorize} checks on order endpoints.
+ * <p>
+ * One indexed lookup by primary key that reads {@code user_id} and {@code status} only, with the
+ * archive as fallback, cached per order id. The owner never changes and {@link OrderCacheEvictor}
+ * evicts the entry when the status does, so most checks are answered without a statement.
+ * Unknown ids are not cached, so an order is visible to its owner as soon as it is created.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOwnershipLookup {
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    // Null when there is no such order
+    @Transactional(readOnly = true)
+    @Cacheable(value = AppConstants.Cache.ORDER_OWNERSHIP_CACHE, key = "#orderId", unless = "#result == null")
+    public OrderOwnership find(Long orderId) {
+        return orderRepository.findOwnershipById(orderId)
+                .or(() -> orderArchiveRepository.findOwnershipById(orderId))
+                .orElse(null);
+    }
+}
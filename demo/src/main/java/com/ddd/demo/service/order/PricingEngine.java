@@ -0,0 +1,111 @@
+package com.ddd.demo.service.order;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.entity.order.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Order pricing on primitive longs in minor units (1/100 of the currency, matching the scale 2
+ * amount columns). Amounts are converted from and to {@link BigDecimal} only where they are read
+ * from or written to entities and DTOs, so pricing a line allocates nothing.
+ * <p>
+ * Tax is the only step that can produce fractions of a minor unit; it is rounded HALF_UP to a
+ * whole minor unit, which is what the database did when it stored the unrounded amount in a
+ * scale 2 column. Arithmetic overflow is reported as a {@link BusinessException}.
+ */
+@Component
+public class PricingEngine {
+
+    public static final int SCALE = 2;
+
+    // The tax rate is held in parts per million so that tax = subtotal * rate / 1e6 stays integral
+    private static final long RATE_DENOMINATOR = 1_000_000L;
+
+    private final long taxRatePpm;
+    private final long standardShippingFee;
+    private final long expressShippingFee;
+    private final long freeShippingThreshold;
+
+    public PricingEngine(@Value("${app.order.tax-rate:0.1}") BigDecimal taxRate,
+                         @Value("${app.order.standard-shipping-fee:30000}") BigDecimal standardShippingFee,
+                         @Value("${app.order.express-shipping-fee:50000}") BigDecimal expressShippingFee,
+                         @Value("${app.order.free-shipping-threshold:500000}") BigDecimal freeShippingThreshold) {
+        try {
+            this.taxRatePpm = taxRate.movePointRight(6).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("app.order.tax-rate supports at most 6 decimal places: " + taxRate);
+        }
+        this.standardShippingFee = toMinor(standardShippingFee);
+        this.expressShippingFee = toMinor(expressShippingFee);
+        this.freeShippingThreshold = toMinor(freeShippingThreshold);
+    }
+
+    public long lineTotal(long unitPrice, int quantity, long discount) {
+        try {
+            return Math.subtractExact(Math.multiplyExact(unitPrice, quantity), discount);
+        } catch (ArithmeticException e) {
+            throw new BusinessException("Order amount is too large");
+        }
+    }
+
+    public long tax(long subtotal) {
+        try {
+            long scaled = Math.multiplyExact(subtotal, taxRatePpm);
+            // HALF_UP on the magnitude, as BigDecimal does
+            long half = RATE_DENOMINATOR / 2;
+            return scaled >= 0 ? (scaled + half) / RATE_DENOMINATOR : -((-scaled + half) / RATE_DENOMINATOR);
+        } catch (ArithmeticException e) {
+            throw new BusinessException("Order amount is too large");
+        }
+    }
+
+    // Flat fee for the shipping method, ignoring the free shipping threshold
+    public long shippingFee(Order.ShippingMethod shippingMethod) {
+        return shippingMethod == Order.ShippingMethod.EXPRESS ? expressShippingFee : standardShippingFee;
+    }
+
+    public long shippingFee(long subtotal, Order.ShippingMethod shippingMethod) {
+        return subtotal >= freeShippingThreshold ? 0 : shippingFee(shippingMethod);
+    }
+
+    public Amounts price(long subtotal, long shippingFee, long discount) {
+        long tax = tax(subtotal);
+        try {
+            long total = Math.subtractExact(Math.addExact(Math.addExact(subtotal, tax), shippingFee), discount);
+            return new Amounts(subtotal, tax, shippingFee, discount, total);
+        } catch (ArithmeticException e) {
+            throw new BusinessException("Order amount is too large");
+        }
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        try {
+            return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new BusinessException("Amount is too large: " + amount);
+        }
+    }
+
+    public static BigDecimal toAmount(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    // Order level amounts in minor units
+    public record Amounts(long subtotal, long tax, long shippingFee, long discount, long total) {
+
+        public void applyTo(Order order) {
+            order.setSubtotal(toAmount(subtotal));
+            order.setTaxAmount(toAmount(tax));
+            order.setShippingFee(toAmount(shippingFee));
+            order.setDiscountAmount(toAmount(discount));
+            order.setTotalAmount(toAmount(total));
+        }
+    }
+}
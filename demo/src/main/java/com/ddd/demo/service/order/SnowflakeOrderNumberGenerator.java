@@ -0,0 +1,78 @@
+package com.ddd.demo.service.order;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node id
+ * and a 12-bit per-millisecond sequence, rendered as {@code ORD-} plus 13 zero-padded base-36 digits.
+ * <p>
+ * Timestamp and sequence live in one {@link AtomicLong} that is advanced with a CAS, so generation
+ * never blocks. When the sequence of a millisecond is exhausted, or the clock moves backwards, the
+ * generator keeps counting from the last issued value instead of waiting, which keeps numbers
+ * unique and strictly increasing per node.
+ */
+@Component
+public class SnowflakeOrderNumberGenerator implements OrderNumberGenerator {
+
+    public static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String PREFIX = "ORD-";
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+    private final Clock clock;
+
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last issued id
+    private final AtomicLong lastState = new AtomicLong();
+
+    @Autowired
+    public SnowflakeOrderNumberGenerator(@Value("${app.order.node-id:0}") long nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    public SnowflakeOrderNumberGenerator(long nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Order node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextOrderNumber() {
+        return format(nextId());
+    }
+
+    public long nextId() {
+        long now = (clock.millis() - EPOCH) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = lastState.get();
+            next = now > previous ? now : previous + 1;
+        } while (!lastState.compareAndSet(previous, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+    }
+
+    static String format(long id) {
+        String encoded = Long.toString(id, 36).toUpperCase();
+        StringBuilder orderNumber = new StringBuilder(PREFIX.length() + ENCODED_LENGTH).append(PREFIX);
+        for (int i = encoded.length(); i < ENCODED_LENGTH; i++) {
+            orderNumber.append('0');
+        }
+        return orderNumber.append(encoded).toString();
+    }
+}
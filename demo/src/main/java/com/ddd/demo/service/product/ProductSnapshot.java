@@ -0,0 +1,21 @@
+package com.ddd.demo.service.product;
+
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.service.order.PricingEngine;
+
+import java.math.BigDecimal;
+
+// Immutable view of what pricing needs from a product; unitPrice is in minor units
+public record ProductSnapshot(Long id, String productName, String category, BigDecimal price, long unitPrice,
+                              long stockQuantity, Product.ProductStatus status) {
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.getId(), product.getProductName(), product.getCategory(),
+                product.getPrice(), PricingEngine.toMinor(product.getPrice()), product.getStockQuantity(),
+                product.getStatus());
+    }
+
+    public ProductSnapshot withStock(long stockQuantity) {
+        return new ProductSnapshot(id, productName, category, price, unitPrice, stockQuantity, status);
+    }
+}
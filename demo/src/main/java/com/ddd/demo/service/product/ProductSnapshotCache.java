@@ -0,0 +1,73 @@
+package com.ddd.demo.service.product;
+
+import com.ddd.demo.common.constants.AppConstants;
+import com.ddd.demo.common.exception.ResourceNotFoundException;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.service.inventory.ShardedInventoryEngine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Near-cache of {@link ProductSnapshot}s for read-only pricing such as order quotes.
+ * <p>
+ * Snapshots live in the bounded {@code productSnapshots} cache; the products missing from it are
+ * loaded together in one statement. {@code ProductServiceImpl} evicts a product's snapshot when
+ * its price, status or stock is changed through the service. Stock taken by orders does not evict,
+ * so under load the cached stock may lag by up to the cache TTL; with the inventory engine
+ * enabled the live stock is read from its shards instead. The stock shown is advisory either way:
+ * creating the order reserves it atomically.
+ */
+@Component
+public class ProductSnapshotCache {
+
+    private final ProductRepository productRepository;
+    private final Optional<ShardedInventoryEngine> inventoryEngine;
+    private final Cache cache;
+
+    public ProductSnapshotCache(ProductRepository productRepository,
+                                Optional<ShardedInventoryEngine> inventoryEngine,
+                                CacheManager cacheManager) {
+        this.productRepository = productRepository;
+        this.inventoryEngine = inventoryEngine;
+        this.cache = cacheManager.getCache(AppConstants.Cache.PRODUCT_SNAPSHOTS_CACHE);
+    }
+
+    // Snapshots by id, in the order given; fails if any product does not exist
+    public Map<Long, ProductSnapshot> getAll(Collection<Long> productIds) {
+        Map<Long, ProductSnapshot> snapshots = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long productId : productIds) {
+            ProductSnapshot snapshot = cache.get(productId, ProductSnapshot.class);
+            if (snapshot != null) {
+                snapshots.put(productId, snapshot);
+            } else {
+                missing.add(productId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            productRepository.findAllById(missing).forEach(product -> {
+                ProductSnapshot snapshot = ProductSnapshot.of(product);
+                cache.put(product.getId(), snapshot);
+                snapshots.put(product.getId(), snapshot);
+            });
+            for (Long productId : missing) {
+                if (!snapshots.containsKey(productId)) {
+                    throw new ResourceNotFoundException("Product not found: " + productId);
+                }
+            }
+        }
+
+        inventoryEngine.ifPresent(engine -> snapshots.replaceAll(
+                (productId, snapshot) -> snapshot.withStock(engine.getAvailable(productId))));
+        return snapshots;
+    }
+}
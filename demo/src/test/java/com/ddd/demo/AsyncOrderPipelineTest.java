@@ -0,0 +1,208 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.TooManyRequestsException;
+import com.ddd.demo.dto.order.OrderItemRequest;
+import com.ddd.demo.dto.order.OrderRequest;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.OrderSubmissionResponse;
+import com.ddd.demo.dto.order.OrderSubmissionResponse.Status;
+import com.ddd.demo.dto.order.ShippingAddressRequest;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.order.AsyncOrderPipeline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.order.async.enabled=true",
+        "app.order.async.queue-capacity=2",
+        "app.order.async.concurrency=1",
+        "app.order.async.retry-after-seconds=7"
+})
+@ActiveProfiles("test")
+public class AsyncOrderPipelineTest {
+
+    @Autowired
+    private AsyncOrderPipeline asyncOrderPipeline;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @SpyBean
+    private OrderService orderService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void acceptedOrderIsCreatedUnderTheReservedNumber() throws Exception {
+        User user = fixtures.createUser("async");
+        Product product = fixtures.createProduct("async", "20000.00", 10);
+
+        OrderSubmissionResponse accepted = asyncOrderPipeline.submit(user.getId(), request(product.getId(), 3));
+        assertEquals(Status.ACCEPTED, accepted.getStatus());
+        assertEquals("/api/v1/orders/submissions/" + accepted.getOrderNumber(), accepted.getStatusUrl());
+
+        OrderSubmissionResponse done = awaitFinished(accepted.getOrderNumber(), user.getId());
+        assertEquals(Status.COMPLETED, done.getStatus());
+        assertEquals(accepted.getOrderNumber(), orderService.getOrderById(done.getOrderId()).getOrderNumber());
+        assertEquals(7, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+        // Only the user who placed the order can see it
+        assertTrue(asyncOrderPipeline.getSubmission(accepted.getOrderNumber(), user.getId() + 1).isEmpty());
+    }
+
+    @Test
+    void rejectedOrderReportsTheReason() throws Exception {
+        User user = fixtures.createUser("async");
+        Product product = fixtures.createProduct("async", "20000.00", 1);
+
+        OrderSubmissionResponse accepted = asyncOrderPipeline.submit(user.getId(), request(product.getId(), 5));
+
+        OrderSubmissionResponse done = awaitFinished(accepted.getOrderNumber(), user.getId());
+        assertEquals(Status.FAILED, done.getStatus());
+        assertNotNull(done.getMessage());
+        assertNull(done.getOrderId());
+    }
+
+    @Test
+    void fullQueueIsRejectedWithRetryAfter() throws Exception {
+        User user = fixtures.createUser("async");
+        Product product = fixtures.createProduct("async", "20000.00", 10);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(orderService).createOrder(anyLong(), any(OrderRequest.class), anyString());
+        double rejectedBefore = meterRegistry.counter("order.async.rejected").count();
+
+        List<OrderSubmissionResponse> accepted = new ArrayList<>();
+        try {
+            // The single worker takes the first order and blocks; the next two fill the queue
+            accepted.add(asyncOrderPipeline.submit(user.getId(), request(product.getId(), 1)));
+            await(() -> asyncOrderPipeline.getQueuedCount() == 0);
+            accepted.add(asyncOrderPipeline.submit(user.getId(), request(product.getId(), 1)));
+            accepted.add(asyncOrderPipeline.submit(user.getId(), request(product.getId(), 1)));
+
+            TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class,
+                    () -> asyncOrderPipeline.submit(user.getId(), request(product.getId(), 1)));
+            assertEquals(7, rejected.getRetryAfterSeconds());
+            assertEquals(1, meterRegistry.counter("order.async.rejected").count() - rejectedBefore);
+        } finally {
+            release.countDown();
+        }
+
+        for (OrderSubmissionResponse submission : accepted) {
+            assertEquals(Status.COMPLETED, awaitFinished(submission.getOrderNumber(), user.getId()).getStatus());
+        }
+        assertEquals(7, productRepository.findById(product.getId()).orElseThrow().getStockQuantity());
+    }
+
+    @Test
+    void shutdownDrainsTheQueueBeforeStoppingWorkers() throws Exception {
+        OrderService slowService = mock(OrderService.class);
+        when(slowService.createOrder(anyLong(), any(OrderRequest.class), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return OrderResponse.builder().id(1L).build();
+        });
+        AsyncOrderPipeline pipeline = standalonePipeline(slowService, Duration.ofSeconds(10));
+
+        List<OrderSubmissionResponse> accepted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            accepted.add(pipeline.submit(1L, request(1L, 1)));
+        }
+        pipeline.shutdown();
+
+        // The last order is still being created when the queue runs empty; it must not be interrupted
+        for (OrderSubmissionResponse submission : accepted) {
+            assertEquals(Status.COMPLETED,
+                    pipeline.getSubmission(submission.getOrderNumber(), 1L).orElseThrow().getStatus());
+        }
+    }
+
+    @Test
+    void shutdownInterruptsWorkersOnlyAfterTheTimeout() throws Exception {
+        OrderService stuckService = mock(OrderService.class);
+        when(stuckService.createOrder(anyLong(), any(OrderRequest.class), anyString())).thenAnswer(invocation -> {
+            new CountDownLatch(1).await();
+            return OrderResponse.builder().id(1L).build();
+        });
+        AsyncOrderPipeline pipeline = standalonePipeline(stuckService, Duration.ofMillis(300));
+        OrderSubmissionResponse submission = pipeline.submit(1L, request(1L, 1));
+
+        long started = System.nanoTime();
+        pipeline.shutdown();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(elapsedMillis >= 300 && elapsedMillis < 5_000, "Shutdown took " + elapsedMillis + " ms");
+        assertEquals(Status.FAILED, pipeline.getSubmission(submission.getOrderNumber(), 1L).orElseThrow().getStatus());
+    }
+
+    private AsyncOrderPipeline standalonePipeline(OrderService service, Duration shutdownTimeout) {
+        AtomicInteger sequence = new AtomicInteger();
+        AsyncOrderPipeline pipeline = new AsyncOrderPipeline(service, () -> "SD" + sequence.incrementAndGet(),
+                new SimpleMeterRegistry(), 10, Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(pipeline, "concurrency", 1);
+        ReflectionTestUtils.setField(pipeline, "shutdownTimeout", shutdownTimeout);
+        pipeline.start();
+        return pipeline;
+    }
+
+    private OrderSubmissionResponse awaitFinished(String orderNumber, Long userId) throws InterruptedException {
+        OrderSubmissionResponse[] current = new OrderSubmissionResponse[1];
+        await(() -> {
+            current[0] = asyncOrderPipeline.getSubmission(orderNumber, userId).orElseThrow();
+            return current[0].getStatus() == Status.COMPLETED || current[0].getStatus() == Status.FAILED;
+        });
+        return current[0];
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the pipeline");
+            Thread.sleep(10);
+        }
+    }
+
+    private OrderRequest request(Long productId, int quantity) {
+        return OrderRequest.builder()
+                .items(List.of(OrderItemRequest.builder().productId(productId).quantity(quantity).build()))
+                .shippingAddress(ShippingAddressRequest.builder()
+                        .recipientName("Async Buyer")
+                        .phoneNumber("0123456789")
+                        .streetAddress("1 Main Street")
+                        .city("Seoul")
+                        .build())
+                .paymentMethod("CASH_ON_DELIVERY")
+                .shippingMethod("STANDARD")
+                .build();
+    }
+}
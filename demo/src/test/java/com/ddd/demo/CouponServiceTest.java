@@ -0,0 +1,188 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.dto.coupon.CouponRequest;
+import com.ddd.demo.dto.order.OrderItemRequest;
+import com.ddd.demo.dto.order.OrderRequest;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.ShippingAddressRequest;
+import com.ddd.demo.entity.coupon.Coupon;
+import com.ddd.demo.entity.order.OrderItem;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.service.CouponService;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.coupon.CouponUsageStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.email.outbox.poll-interval-ms=3600000")
+@ActiveProfiles("test")
+public class CouponServiceTest {
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CouponUsageStore couponUsageStore;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void percentFixedMinimumAndCategoryRules() {
+        List<OrderItem> items = List.of(item("books", "30000.00"), item("toys", "70000.00"));
+        BigDecimal subtotal = new BigDecimal("100000.00");
+
+        String percent = createCoupon(coupon(Coupon.DiscountType.PERCENT, "15").maxDiscountAmount(new BigDecimal("12000")));
+        assertEquals(new BigDecimal("12000.00"), couponService.calculateDiscount(percent, subtotal, items));
+
+        String fixed = createCoupon(coupon(Coupon.DiscountType.FIXED, "5000").minOrderAmount(new BigDecimal("100000")));
+        assertEquals(new BigDecimal("5000.00"), couponService.calculateDiscount(fixed, subtotal, items));
+        assertThrows(BusinessException.class,
+                () -> couponService.calculateDiscount(fixed, new BigDecimal("99999.99"), items));
+
+        String books = createCoupon(coupon(Coupon.DiscountType.PERCENT, "50").category("books"));
+        assertEquals(new BigDecimal("15000.00"), couponService.calculateDiscount(books, subtotal, items));
+        assertThrows(BusinessException.class,
+                () -> couponService.calculateDiscount(books, subtotal, List.of(item("toys", "70000.00"))));
+
+        String expired = createCoupon(coupon(Coupon.DiscountType.FIXED, "1000")
+                .startsAt(LocalDateTime.now().minusDays(2)).expiresAt(LocalDateTime.now().minusDays(1)));
+        assertThrows(BusinessException.class, () -> couponService.calculateDiscount(expired, subtotal, items));
+    }
+
+    @Test
+    void indexFollowsCommittedChanges() {
+        List<OrderItem> items = List.of(item("books", "10000.00"));
+        String code = createCoupon(coupon(Coupon.DiscountType.FIXED, "1000"));
+        Long id = couponService.getAllCoupons().stream().filter(c -> c.getCode().equals(code)).findFirst().orElseThrow().getId();
+
+        couponService.updateCoupon(id, coupon(Coupon.DiscountType.FIXED, "2500").code(code).build());
+        assertEquals(new BigDecimal("2500.00"), couponService.calculateDiscount(code, new BigDecimal("10000.00"), items));
+
+        couponService.deactivateCoupon(id);
+        assertThrows(BusinessException.class,
+                () -> couponService.calculateDiscount(code, new BigDecimal("10000.00"), items));
+    }
+
+    @Test
+    void usageLimitHoldsUnderConcurrentCheckouts() throws Exception {
+        String code = createCoupon(coupon(Coupon.DiscountType.FIXED, "1000").usageLimit(5));
+        List<OrderItem> items = List.of(item("books", "10000.00"));
+        int buyers = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(buyers);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (long userId = 1; userId <= buyers; userId++) {
+            long buyer = userId;
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    couponService.redeem(code, buyer, new BigDecimal("10000.00"), items);
+                    return true;
+                } catch (BusinessException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+        int redeemed = 0;
+        for (Future<Boolean> result : results) {
+            redeemed += result.get(10, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(5, redeemed);
+        assertEquals(5, couponUsageStore.getUsage(code));
+    }
+
+    @Test
+    void perUserLimitAndRollbackRelease() {
+        String code = createCoupon(coupon(Coupon.DiscountType.FIXED, "1000").perUserLimit(1));
+        List<OrderItem> items = List.of(item("books", "10000.00"));
+
+        // A redemption inside a transaction that rolls back is given back
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            couponService.redeem(code, 7L, new BigDecimal("10000.00"), items);
+            throw new IllegalStateException("checkout failed");
+        }));
+        assertEquals(0, couponUsageStore.getUsage(code));
+
+        couponService.redeem(code, 7L, new BigDecimal("10000.00"), items);
+        assertThrows(BusinessException.class,
+                () -> couponService.redeem(code, 7L, new BigDecimal("10000.00"), items));
+        couponService.redeem(code, 8L, new BigDecimal("10000.00"), items);
+        assertEquals(2, couponUsageStore.getUsage(code));
+    }
+
+    @Test
+    void orderRedeemsCouponAndCancellationGivesItBack() {
+        String code = createCoupon(coupon(Coupon.DiscountType.PERCENT, "10").perUserLimit(1));
+        User user = fixtures.createUser("coupon");
+        Product product = fixtures.createProduct("coupon", "20000.00", 10);
+        OrderRequest request = OrderRequest.builder()
+                .items(List.of(OrderItemRequest.builder().productId(product.getId()).quantity(2).build()))
+                .shippingAddress(ShippingAddressRequest.builder()
+                        .recipientName("Coupon Buyer")
+                        .phoneNumber("0123456789")
+                        .streetAddress("1 Main Street")
+                        .city("Seoul")
+                        .build())
+                .couponCode(code)
+                .paymentMethod("CASH_ON_DELIVERY")
+                .shippingMethod("STANDARD")
+                .build();
+
+        OrderResponse order = orderService.createOrder(user.getId(), request);
+        assertEquals(0, new BigDecimal("4000.00").compareTo(order.getDiscountAmount()));
+        assertEquals(1, couponUsageStore.getUsage(code));
+        assertThrows(BusinessException.class, () -> orderService.createOrder(user.getId(), request));
+        assertEquals(1, couponUsageStore.getUsage(code));
+
+        orderService.cancelOrder(order.getId(), "Changed my mind");
+        assertEquals(0, couponUsageStore.getUsage(code));
+    }
+
+    private String createCoupon(CouponRequest.CouponRequestBuilder builder) {
+        return couponService.createCoupon(builder.build()).getCode();
+    }
+
+    private CouponRequest.CouponRequestBuilder coupon(Coupon.DiscountType type, String value) {
+        return CouponRequest.builder()
+                .code("T" + UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase())
+                .discountType(type)
+                .discountValue(new BigDecimal(value));
+    }
+
+    private OrderItem item(String category, String totalPrice) {
+        return OrderItem.builder()
+                .product(Product.builder().category(category).build())
+                .quantity(1)
+                .unitPrice(new BigDecimal(totalPrice))
+                .totalPrice(new BigDecimal(totalPrice))
+                .build();
+    }
+}
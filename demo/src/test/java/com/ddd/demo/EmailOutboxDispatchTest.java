@@ -0,0 +1,186 @@
+package com.ddd.demo;
+
+import com.ddd.demo.entity.email.EmailOutbox;
+import com.ddd.demo.repository.EmailOutboxRepository;
+import com.ddd.demo.service.EmailOutboxService;
+import com.ddd.demo.service.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.email.outbox.batch-size=2"
+})
+@ActiveProfiles("test")
+public class EmailOutboxDispatchTest {
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void rolledBackTransactionLeavesNothingToSend() {
+        transactionTemplate.executeWithoutResult(status -> {
+            emailOutboxService.enqueue("buyer@example.com", "Order Confirmation", "email/order-confirmation",
+                    Map.of("orderNumber", "ORD-1"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxRepository.count());
+        assertEquals(0, emailOutboxService.dispatchPending());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void enqueueRequiresCallerTransaction() {
+        assertThrows(IllegalTransactionStateException.class, () -> emailOutboxService.enqueue(
+                "buyer@example.com", "Order Confirmation", "email/order-confirmation", Map.of()));
+    }
+
+    @Test
+    void committedMessagesAreDeliveredInBatchesAndRemoved() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                emailOutboxService.enqueue("buyer" + i + "@example.com", "Order Confirmation",
+                        "email/order-confirmation", Map.of("orderNumber", "ORD-" + i));
+            }
+        });
+
+        assertEquals(5, emailOutboxService.dispatchPending());
+
+        assertEquals(0, outboxRepository.count());
+        verify(emailService).deliverTemplatedEmail(eq("buyer3@example.com"), eq("Order Confirmation"),
+                eq("email/order-confirmation"), eq(Map.of("orderNumber", "ORD-3")));
+        verify(emailService, times(5)).deliverTemplatedEmail(anyString(), anyString(), anyString(), anyMap());
+    }
+
+    @Test
+    void messagesAreSentOutsideTheTransactionWhileClaimed() {
+        transactionTemplate.executeWithoutResult(status -> emailOutboxService.enqueue(
+                "buyer@example.com", "Order Confirmation", "email/order-confirmation", Map.of("orderNumber", "ORD-1")));
+        Long id = outboxRepository.findAll().get(0).getId();
+        List<Object> seenWhileSending = new ArrayList<>();
+        doAnswer(invocation -> {
+            seenWhileSending.add(TransactionSynchronizationManager.isActualTransactionActive());
+            seenWhileSending.add(outboxRepository.findById(id).orElseThrow().getStatus());
+            return null;
+        }).when(emailService).deliverTemplatedEmail(anyString(), anyString(), anyString(), anyMap());
+
+        assertEquals(1, emailOutboxService.dispatchPending());
+
+        // The claim is committed before sending, so other dispatchers see the row as taken
+        assertEquals(List.of(false, EmailOutbox.OutboxStatus.IN_PROGRESS), seenWhileSending);
+        assertEquals(0, outboxRepository.count());
+    }
+
+    @Test
+    void messageIsClaimedAgainOnlyOnceItsLeaseRunsOut() {
+        EmailOutbox abandoned = outboxRepository.save(claimed("abandoned@example.com", LocalDateTime.now().minusSeconds(1)));
+        EmailOutbox leased = outboxRepository.save(claimed("leased@example.com", LocalDateTime.now().plusMinutes(5)));
+
+        assertEquals(1, emailOutboxService.dispatchPending());
+
+        verify(emailService).deliverTemplatedEmail(eq("abandoned@example.com"), anyString(), anyString(), anyMap());
+        assertFalse(outboxRepository.existsById(abandoned.getId()));
+        assertEquals(EmailOutbox.OutboxStatus.IN_PROGRESS,
+                outboxRepository.findById(leased.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void failedDeliveryIsRetriedLaterAndEventuallyMarkedFailed() {
+        doThrow(new MailSendException("SMTP unavailable"))
+                .when(emailService).deliverTemplatedEmail(anyString(), anyString(), anyString(), anyMap());
+        transactionTemplate.executeWithoutResult(status -> emailOutboxService.enqueue(
+                "buyer@example.com", "Order Status Update", "email/order-status-update", Map.of("status", "SHIPPED")));
+
+        assertEquals(0, emailOutboxService.dispatchPending());
+
+        EmailOutbox message = outboxRepository.findAll().get(0);
+        assertEquals(1, message.getAttempts());
+        assertEquals(EmailOutbox.OutboxStatus.PENDING, message.getStatus());
+        assertTrue(message.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals("SMTP unavailable", message.getLastError());
+
+        // Not due yet, so a second run does not retry it
+        assertEquals(0, emailOutboxService.dispatchPending());
+        verify(emailService, times(1)).deliverTemplatedEmail(anyString(), anyString(), anyString(), anyMap());
+
+        message.setAttempts(7);
+        message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(message);
+        emailOutboxService.dispatchPending();
+
+        List<EmailOutbox> remaining = outboxRepository.findAll();
+        assertEquals(1, remaining.size());
+        assertEquals(EmailOutbox.OutboxStatus.FAILED, remaining.get(0).getStatus());
+    }
+
+    @Test
+    void messageWhoseClaimsNeverSettleIsEventuallyMarkedFailed() {
+        transactionTemplate.executeWithoutResult(status -> emailOutboxService.enqueue(
+                "buyer@example.com", "Order Confirmation", "email/order-confirmation", Map.of("orderNumber", "ORD-1")));
+        Long id = outboxRepository.findAll().get(0).getId();
+        // Each send takes the dispatcher down before it settles, so the lease is all that frees the row
+        doAnswer(invocation -> {
+            throw new Error("dispatcher died");
+        }).when(emailService).deliverTemplatedEmail(anyString(), anyString(), anyString(), anyMap());
+
+        for (int claim = 1; claim <= 8; claim++) {
+            assertThrows(Error.class, () -> emailOutboxService.dispatchPending());
+            EmailOutbox message = outboxRepository.findById(id).orElseThrow();
+            assertEquals(claim, message.getAttempts());
+            assertEquals(EmailOutbox.OutboxStatus.IN_PROGRESS, message.getStatus());
+            message.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+            outboxRepository.save(message);
+        }
+
+        assertEquals(0, emailOutboxService.dispatchPending());
+
+        EmailOutbox message = outboxRepository.findById(id).orElseThrow();
+        assertEquals(EmailOutbox.OutboxStatus.FAILED, message.getStatus());
+        assertEquals(8, message.getAttempts());
+        verify(emailService, times(8)).deliverTemplatedEmail(anyString(), anyString(), anyString(), anyMap());
+    }
+
+    private EmailOutbox claimed(String recipient, LocalDateTime leaseExpiry) {
+        return EmailOutbox.builder()
+                .recipient(recipient)
+                .subject("Order Confirmation")
+                .templateName("email/order-confirmation")
+                .variables("{}")
+                .status(EmailOutbox.OutboxStatus.IN_PROGRESS)
+                .nextAttemptAt(leaseExpiry)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.service.idempotency.IdempotencyService;
+import com.ddd.demo.service.idempotency.IdempotentResult;
+import com.ddd.demo.service.idempotency.InMemoryIdempotencyStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyServiceTest {
+
+    private static final Map<String, Object> REQUEST = Map.of("productId", 1, "quantity", 2);
+
+    private InMemoryIdempotencyStore store;
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryIdempotencyStore();
+        idempotencyService = new IdempotencyService(store, new ObjectMapper());
+        ReflectionTestUtils.setField(idempotencyService, "ttl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(idempotencyService, "inFlightTimeout", Duration.ofSeconds(10));
+    }
+
+    @Test
+    void retryReturnsStoredResponseWithoutRunningAgain() {
+        IdempotentResult<Receipt> first = idempotencyService.execute("orders:1", "key-1", REQUEST, Receipt.class, this::createReceipt);
+        IdempotentResult<Receipt> retry = idempotencyService.execute("orders:1", "key-1", REQUEST, Receipt.class, this::createReceipt);
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheInFlightRequest() throws Exception {
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<IdempotentResult<Receipt>>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return idempotencyService.execute("orders:1", "key-2", REQUEST, Receipt.class, () -> {
+                    sleep(200);
+                    return createReceipt();
+                });
+            }));
+        }
+        start.countDown();
+
+        Receipt expected = null;
+        int replays = 0;
+        for (Future<IdempotentResult<Receipt>> result : results) {
+            IdempotentResult<Receipt> outcome = result.get();
+            expected = expected == null ? outcome.response() : expected;
+            assertEquals(expected, outcome.response());
+            replays += outcome.replayed() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        assertEquals(1, executions.get());
+        assertEquals(threads - 1, replays);
+    }
+
+    @Test
+    void keysAreScopedAndBoundToTheOriginalRequest() {
+        idempotencyService.execute("orders:1", "key-3", REQUEST, Receipt.class, this::createReceipt);
+
+        // Same key from another user is a different request
+        assertFalse(idempotencyService.execute("orders:2", "key-3", REQUEST, Receipt.class, this::createReceipt).replayed());
+        assertThrows(BusinessException.class, () -> idempotencyService.execute("orders:1", "key-3",
+                Map.of("productId", 1, "quantity", 3), Receipt.class, this::createReceipt));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void failedRequestCanBeRetriedWithTheSameKey() {
+        assertThrows(BusinessException.class, () -> idempotencyService.execute("orders:1", "key-4", REQUEST, Receipt.class,
+                () -> {
+                    throw new BusinessException("Insufficient stock");
+                }));
+
+        IdempotentResult<Receipt> retry = idempotencyService.execute("orders:1", "key-4", REQUEST, Receipt.class, this::createReceipt);
+        assertFalse(retry.replayed());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void duplicateTakesOverAKeyReleasedByAFailedHolderOnAnotherInstance() throws Exception {
+        // Another instance holds the reservation, then fails and releases it
+        String key = "idempotency:orders:1:key-5";
+        assertTrue(store.reserve(key, Duration.ofSeconds(10)));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<IdempotentResult<Receipt>> duplicate = executor.submit(() ->
+                idempotencyService.execute("orders:1", "key-5", REQUEST, Receipt.class, this::createReceipt));
+        sleep(200);
+        assertEquals(0, executions.get());
+        store.release(key);
+
+        IdempotentResult<Receipt> result = duplicate.get();
+        executor.shutdown();
+        assertFalse(result.replayed());
+        assertEquals(1, executions.get());
+    }
+
+    private Receipt createReceipt() {
+        int number = executions.incrementAndGet();
+        return new Receipt("ORD-" + number, number * 100L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public record Receipt(String orderNumber, long amount) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.ddd.demo;
+
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.order.ShippingAddress;
+import com.ddd.demo.service.InvoiceService;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.impl.InvoiceServiceImpl;
+import com.ddd.demo.service.invoice.Invoice;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.invoice.cache-dir=${java.io.tmpdir}/invoice-test-${random.uuid}",
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class InvoiceServiceTest {
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private InvoiceServiceImpl invoiceServiceImpl;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void openOrderIsRenderedOnDemand() throws IOException {
+        Long orderId = createOrder(Order.OrderStatus.PROCESSING);
+
+        Invoice invoice = invoiceService.getInvoice(orderId);
+
+        assertFalse(invoice.isCached());
+        byte[] pdf = render(invoice);
+        assertPdf(pdf);
+        try (PDDocument document = PDDocument.load(pdf)) {
+            String text = new PDFTextStripper().getText(document);
+            assertTrue(text.contains(invoice.getOrderNumber()));
+            assertTrue(text.contains("invoice product"));
+            assertTrue(text.contains("85,000.00"));
+            assertTrue(text.contains("District 1, Seoul"));
+        }
+    }
+
+    @Test
+    void finishedOrderIsRenderedOnceAndReused() throws IOException {
+        Long orderId = createOrder(Order.OrderStatus.DELIVERED);
+
+        Invoice first = invoiceService.getInvoice(orderId);
+        assertTrue(first.isCached());
+        assertPdf(Files.readAllBytes(first.getFile()));
+        FileTime renderedAt = Files.getLastModifiedTime(first.getFile());
+
+        Invoice second = invoiceService.getInvoice(orderId);
+        assertEquals(first.getFile(), second.getFile());
+        assertEquals(renderedAt, Files.getLastModifiedTime(second.getFile()));
+        assertArrayEquals(Files.readAllBytes(first.getFile()), render(second));
+    }
+
+    @Test
+    void changedOrderMissesTheCacheAndReplacesTheOldFile() throws IOException {
+        Long orderId = createOrder(Order.OrderStatus.DELIVERED);
+        Path original = invoiceService.getInvoice(orderId).getFile();
+
+        // Through the service, so the cached order response is evicted as well
+        orderService.updateShippingInfo(orderId, "TRK-RETURN");
+        Path updated = invoiceService.getInvoice(orderId).getFile();
+
+        assertNotEquals(original, updated);
+        assertTrue(Files.exists(updated));
+        assertFalse(Files.exists(original));
+    }
+
+    @Test
+    void sweepRemovesOldInvoicesAndKeepsTheCacheUnderItsSize() throws IOException {
+        Path old = invoiceService.getInvoice(createOrder(Order.OrderStatus.DELIVERED)).getFile();
+        Path orphan = Files.createTempFile(old.getParent(), "invoice-0-", ".tmp");
+        Path older = invoiceService.getInvoice(createOrder(Order.OrderStatus.CANCELLED)).getFile();
+        Path newest = invoiceService.getInvoice(createOrder(Order.OrderStatus.DELIVERED)).getFile();
+        FileTime monthsAgo = FileTime.from(Instant.now().minus(Duration.ofDays(60)));
+        Files.setLastModifiedTime(old, monthsAgo);
+        Files.setLastModifiedTime(orphan, monthsAgo);
+        Files.setLastModifiedTime(older, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+
+        invoiceServiceImpl.sweepCache();
+        assertFalse(Files.exists(old));
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(older));
+        assertTrue(Files.exists(newest));
+
+        // Over the size limit the oldest files go first
+        DataSize maxSize = (DataSize) ReflectionTestUtils.getField(invoiceServiceImpl, "cacheMaxSize");
+        ReflectionTestUtils.setField(invoiceServiceImpl, "cacheMaxSize", DataSize.ofBytes(Files.size(newest)));
+        try {
+            invoiceServiceImpl.sweepCache();
+        } finally {
+            ReflectionTestUtils.setField(invoiceServiceImpl, "cacheMaxSize", maxSize);
+        }
+        assertFalse(Files.exists(older));
+        assertTrue(Files.exists(newest));
+    }
+
+    private byte[] render(Invoice invoice) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        invoice.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private void assertPdf(byte[] content) {
+        assertTrue(content.length > 1000);
+        assertEquals("%PDF", new String(content, 0, 4, StandardCharsets.US_ASCII));
+    }
+
+    private Long createOrder(Order.OrderStatus status) {
+        return fixtures.createOrder("invoice", "25000.00", 2, order -> {
+            order.setStatus(status);
+            order.setTaxAmount(new BigDecimal("5000.00"));
+            order.setShippingFee(new BigDecimal("30000.00"));
+            order.setTotalAmount(new BigDecimal("85000.00"));
+            order.setShippingAddress(ShippingAddress.builder()
+                    .recipientName("Invoice Customer")
+                    .recipientPhone("0123456789")
+                    .streetAddress("1 Main Street")
+                    .district("District 1")
+                    .city("Seoul")
+                    .build());
+        }).getId();
+    }
+}
@@ -0,0 +1,197 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.utils.KeysetCursor;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.OrderArchiveRepository;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderArchiveService;
+import com.ddd.demo.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.order.archive.older-than=30d",
+        "app.order.archive.chunk-size=2"
+})
+@ActiveProfiles("test")
+public class OrderArchiveJobTest {
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void finishedOldOrdersMoveToTheArchiveAndStayReadable() {
+        Fixture fixture = createFixture();
+        double archivedBefore = meterRegistry.counter("order.archive.archived").count();
+
+        int archived = orderArchiveService.archiveOrders();
+
+        // Three finished orders with a chunk size of two take two chunks
+        assertTrue(archived >= 3);
+        assertEquals(archived, meterRegistry.counter("order.archive.archived").count() - archivedBefore);
+        for (Long id : fixture.archivedIds) {
+            assertTrue(orderRepository.findById(id).isEmpty());
+            assertTrue(orderArchiveRepository.existsById(id));
+        }
+        assertTrue(orderRepository.findById(fixture.recentId).isPresent());
+        assertTrue(orderRepository.findById(fixture.pendingId).isPresent());
+
+        // Lookups by id and number fall back to the archive with items and products intact
+        Long archivedId = fixture.archivedIds.get(0);
+        OrderResponse byId = orderService.getOrderById(archivedId);
+        assertEquals(Order.OrderStatus.DELIVERED, byId.getStatus());
+        assertEquals(1, byId.getOrderItems().size());
+        assertEquals(fixture.productId, byId.getOrderItems().get(0).getProduct().getId());
+        assertEquals(0, new BigDecimal("30000.00").compareTo(byId.getTotalAmount()));
+        assertEquals(archivedId, orderService.getOrderByNumber(byId.getOrderNumber()).getId());
+        assertTrue(orderService.isOrderOwner(archivedId, fixture.userId));
+        assertFalse(orderService.isOrderOwner(archivedId, fixture.userId + 1));
+
+        assertEquals(0, orderArchiveService.archiveOrders());
+    }
+
+    @Test
+    void userHistorySpansBothTiers() {
+        Fixture fixture = createFixture();
+        orderArchiveService.archiveOrders();
+        List<Long> archivedIds = fixture.archivedIds;
+
+        // Newest first across both tiers: the old pending order is live but older than every archived one
+        List<Long> newestFirst = new ArrayList<>();
+        newestFirst.add(fixture.recentId);
+        newestFirst.addAll(archivedIds);
+        newestFirst.add(fixture.pendingId);
+
+        // Offset pages cut from the two tiers merged in the requested order
+        PageRequest firstPage = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Page<OrderResponse> page0 = orderService.getUserOrders(fixture.userId, null, firstPage);
+        Page<OrderResponse> page1 = orderService.getUserOrders(fixture.userId, null, firstPage.next());
+        Page<OrderResponse> page2 = orderService.getUserOrders(fixture.userId, null, firstPage.next().next());
+        assertEquals(5, page0.getTotalElements());
+        assertEquals(3, page0.getTotalPages());
+        assertEquals(newestFirst.subList(0, 2), ids(page0.getContent()));
+        assertEquals(newestFirst.subList(2, 4), ids(page1.getContent()));
+        assertEquals(newestFirst.subList(4, 5), ids(page2.getContent()));
+        assertEquals(1, orderService.getUserOrders(fixture.userId, Order.OrderStatus.CANCELLED, firstPage)
+                .getTotalElements());
+
+        // Any other sort is honoured too; order numbers end in A, B, C, P, R
+        PageRequest byNumber = PageRequest.of(1, 2, Sort.by("orderNumber"));
+        assertEquals(List.of(archivedIds.get(2), fixture.pendingId),
+                ids(orderService.getUserOrders(fixture.userId, null, byNumber).getContent()));
+        PageRequest byStatus = PageRequest.of(0, 5, Sort.by("status").and(Sort.by("orderNumber")));
+        // Status names sort as strings: CANCELLED, DELIVERED (A, R), PENDING, REFUNDED
+        assertEquals(List.of(archivedIds.get(2), archivedIds.get(0), fixture.recentId, fixture.pendingId,
+                        archivedIds.get(1)),
+                ids(orderService.getUserOrders(fixture.userId, null, byStatus).getContent()));
+
+        // Keyset pages: one newest-first sequence across both tiers
+        List<Long> scrolled = new ArrayList<>();
+        ScrollPosition position = KeysetCursor.decode("");
+        Window<OrderResponse> window;
+        do {
+            window = orderService.getUserOrders(fixture.userId, null, position, 2);
+            scrolled.addAll(ids(window.getContent()));
+            if (window.hasNext()) {
+                position = KeysetCursor.decode(KeysetCursor.encode(window.positionAt(window.size() - 1)));
+            }
+        } while (window.hasNext());
+        assertEquals(newestFirst, scrolled);
+    }
+
+    private List<Long> ids(List<OrderResponse> orders) {
+        return orders.stream().map(OrderResponse::getId).toList();
+    }
+
+    private Fixture createFixture() {
+        return transactionTemplate.execute(status -> {
+            String suffix = TestFixtures.suffix();
+            User user = fixtures.createUser("archive");
+            Product product = fixtures.createProduct("archive", "15000.00", 100);
+
+            Fixture fixture = new Fixture(user.getId(), product.getId());
+            fixture.recentId = createOrder(user, product, suffix + "R", Order.OrderStatus.DELIVERED);
+            fixture.archivedIds.add(createOrder(user, product, suffix + "A", Order.OrderStatus.DELIVERED));
+            fixture.archivedIds.add(createOrder(user, product, suffix + "B", Order.OrderStatus.REFUNDED));
+            fixture.archivedIds.add(createOrder(user, product, suffix + "C", Order.OrderStatus.CANCELLED));
+            // Old but not finished, so it stays in the live table
+            fixture.pendingId = createOrder(user, product, suffix + "P", Order.OrderStatus.PENDING);
+
+            entityManager.flush();
+            // createdAt is not updatable through JPQL, so backdate with plain SQL
+            backdate(fixture.archivedIds.get(0), 60);
+            backdate(fixture.archivedIds.get(1), 70);
+            backdate(fixture.archivedIds.get(2), 80);
+            backdate(fixture.pendingId, 90);
+            return fixture;
+        });
+    }
+
+    private void backdate(Long id, int days) {
+        entityManager.createNativeQuery("UPDATE orders SET createdAt = :createdAt WHERE id = :id")
+                .setParameter("createdAt", LocalDateTime.now().minusDays(days))
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    private Long createOrder(User user, Product product, String number, Order.OrderStatus status) {
+        Order order = TestFixtures.order("AR" + number, user, product, 2);
+        order.setStatus(status);
+        return orderRepository.save(order).getId();
+    }
+
+    private static class Fixture {
+        private final Long userId;
+        private final Long productId;
+        private final List<Long> archivedIds = new ArrayList<>();
+        private Long recentId;
+        private Long pendingId;
+
+        private Fixture(Long userId, Long productId) {
+            this.userId = userId;
+            this.productId = productId;
+        }
+    }
+}
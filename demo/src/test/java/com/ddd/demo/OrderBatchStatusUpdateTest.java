@@ -0,0 +1,164 @@
+package com.ddd.demo;
+
+import com.ddd.demo.dto.order.OrderBatchStatusUpdateRequest;
+import com.ddd.demo.dto.order.OrderBatchStatusUpdateResponse;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.EmailOutboxRepository;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global, so keep the outbox poller from adding statements mid-test
+        "app.email.outbox.poll-interval-ms=3600000",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.ddd.demo.OrderBatchStatusUpdateTest$CallerStatements"
+})
+@ActiveProfiles("test")
+public class OrderBatchStatusUpdateTest {
+
+    private static final int PROCESSING_ORDERS = 60;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ThreadPoolTaskExecutor taskExecutor;
+
+    @Test
+    void movesValidOrdersAndReportsEachFailure() throws InterruptedException {
+        List<Order> processing = createOrders(PROCESSING_ORDERS, Order.OrderStatus.PROCESSING);
+        List<Order> pending = createOrders(2, Order.OrderStatus.PENDING);
+        long missingId = Long.MAX_VALUE;
+
+        List<Long> orderIds = new ArrayList<>();
+        processing.forEach(order -> orderIds.add(order.getId()));
+        pending.forEach(order -> orderIds.add(order.getId()));
+        orderIds.add(missingId);
+        long outboxBefore = emailOutboxRepository.count();
+
+        // Statistics are global: let async listeners of earlier changes finish first
+        awaitAsyncListeners();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CallerStatements.start();
+
+        OrderBatchStatusUpdateResponse response = orderService.updateOrderStatuses(OrderBatchStatusUpdateRequest.builder()
+                .orderIds(orderIds)
+                .status(Order.OrderStatus.SHIPPED)
+                .trackingNumber("TRK-BATCH")
+                .build());
+        long statements = CallerStatements.stop();
+        // The rollup listeners of this update run on the async executor; wait for them before reading entity counts
+        awaitAsyncListeners();
+
+        // One select for the orders, one outbox insert per order, and a single batched UPDATE statement
+        // (executed in JDBC batches of 25) instead of one statement per order
+        assertEquals(1 + PROCESSING_ORDERS + 1, statements);
+        assertEquals(PROCESSING_ORDERS, statistics.getEntityStatistics(Order.class.getName()).getUpdateCount());
+
+        assertEquals(PROCESSING_ORDERS, response.getUpdatedCount());
+        assertEquals(3, response.getFailedCount());
+        Map<Long, OrderBatchStatusUpdateResponse.Result> results = response.getResults().stream()
+                .collect(Collectors.toMap(OrderBatchStatusUpdateResponse.Result::getOrderId, Function.identity()));
+        assertTrue(results.get(processing.get(0).getId()).isSuccess());
+        assertEquals("Invalid status transition from PENDING to SHIPPED", results.get(pending.get(0).getId()).getMessage());
+        assertFalse(results.get(missingId).isSuccess());
+
+        Order shipped = orderRepository.findById(processing.get(0).getId()).orElseThrow();
+        assertEquals(Order.OrderStatus.SHIPPED, shipped.getStatus());
+        assertEquals("TRK-BATCH", shipped.getTrackingNumber());
+        assertNotNull(shipped.getShippedDate());
+        assertEquals(Order.OrderStatus.PENDING, orderRepository.findById(pending.get(0).getId()).orElseThrow().getStatus());
+        assertEquals(outboxBefore + PROCESSING_ORDERS, emailOutboxRepository.count());
+    }
+
+    private void awaitAsyncListeners() throws InterruptedException {
+        ThreadPoolExecutor executor = taskExecutor.getThreadPoolExecutor();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (executor.getCompletedTaskCount() < executor.getTaskCount() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(executor.getTaskCount(), executor.getCompletedTaskCount(), "Async listeners still running");
+    }
+
+    private List<Order> createOrders(int count, Order.OrderStatus status) {
+        return transactionTemplate.execute(tx -> {
+            String suffix = TestFixtures.suffix();
+            User user = fixtures.createUser("batch");
+            Product product = fixtures.createProduct("batch", "10000.00", 100);
+
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Order order = TestFixtures.order("BT" + suffix + String.format("%03d", i), user, product, 1);
+                order.setStatus(status);
+                order.setPaymentMethod(Order.PaymentMethod.CASH_ON_DELIVERY);
+                orders.add(orderRepository.save(order));
+            }
+            return orders;
+        });
+    }
+
+    // Counts the SQL prepared on the thread that started counting, so async listeners do not add to it
+    public static class CallerStatements implements StatementInspector {
+
+        private static volatile Thread caller;
+        private static final AtomicLong count = new AtomicLong();
+
+        static void start() {
+            count.set(0);
+            caller = Thread.currentThread();
+        }
+
+        static long stop() {
+            caller = null;
+            return count.get();
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (Thread.currentThread() == caller) {
+                count.incrementAndGet();
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.constants.AppConstants;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.OrderStatusUpdateRequest;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.cache.orders-evict-delay=200ms"
+})
+@ActiveProfiles("test")
+public class OrderCacheTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readsAreServedFromTheCacheUnderIdAndNumber() {
+        Order order = fixtures.createOrder("cache", 2);
+        double hitsBefore = cacheGets("hit");
+
+        OrderResponse byId = orderService.getOrderById(order.getId());
+        OrderResponse byNumber = orderService.getOrderByNumber(order.getOrderNumber());
+
+        assertSame(byId, orderService.getOrderById(order.getId()));
+        assertSame(byNumber, orderService.getOrderByNumber(order.getOrderNumber()));
+        assertEquals(2, cacheGets("hit") - hitsBefore);
+        assertTrue(cacheGets("miss") >= 2);
+    }
+
+    @Test
+    void everyMutationEvictsBothKeys() {
+        Order order = fixtures.createOrder("cache", 2);
+        Long id = order.getId();
+        String number = order.getOrderNumber();
+
+        warm(id, number);
+        orderService.updatePaymentStatus(id, Order.PaymentStatus.PAID);
+        assertEvicted(id, number);
+        assertEquals(Order.PaymentStatus.PAID, orderService.getOrderById(id).getPaymentStatus());
+        assertEquals(Order.OrderStatus.CONFIRMED, orderService.getOrderByNumber(number).getStatus());
+
+        warm(id, number);
+        orderService.updateShippingInfo(id, "TRACK-" + number);
+        assertEvicted(id, number);
+        assertEquals("TRACK-" + number, orderService.getOrderById(id).getTrackingNumber());
+
+        orderService.updateOrderStatus(id, OrderStatusUpdateRequest.builder()
+                .status(Order.OrderStatus.PROCESSING)
+                .build());
+        assertEvicted(id, number);
+        assertEquals(Order.OrderStatus.PROCESSING, orderService.getOrderByNumber(number).getStatus());
+
+        warm(id, number);
+        orderService.cancelOrder(id, "No longer needed");
+        assertEvicted(id, number);
+        assertEquals(Order.OrderStatus.CANCELLED, orderService.getOrderById(id).getStatus());
+        assertEquals(Order.OrderStatus.CANCELLED, orderService.getOrderByNumber(number).getStatus());
+    }
+
+    @Test
+    void staleCopyPutBackAfterCommitIsEvictedAgain() throws InterruptedException {
+        Order order = fixtures.createOrder("cache", 2);
+        Long id = order.getId();
+        String number = order.getOrderNumber();
+        OrderResponse staleById = orderService.getOrderById(id);
+        OrderResponse staleByNumber = orderService.getOrderByNumber(number);
+
+        orderService.updatePaymentStatus(id, Order.PaymentStatus.PAID);
+        assertEvicted(id, number);
+
+        // A read that loaded the order before the commit finishes after the first eviction
+        Cache cache = cacheManager.getCache(AppConstants.Cache.ORDERS_CACHE);
+        cache.put(id, staleById);
+        cache.put(number, staleByNumber);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((cache.get(id) != null || cache.get(number) != null) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEvicted(id, number);
+        assertEquals(Order.PaymentStatus.PAID, orderService.getOrderById(id).getPaymentStatus());
+        assertEquals(Order.PaymentStatus.PAID, orderService.getOrderByNumber(number).getPaymentStatus());
+    }
+
+    private void warm(Long id, String number) {
+        orderService.getOrderById(id);
+        orderService.getOrderByNumber(number);
+        assertNotNull(cacheManager.getCache(AppConstants.Cache.ORDERS_CACHE).get(id));
+        assertNotNull(cacheManager.getCache(AppConstants.Cache.ORDERS_CACHE).get(number));
+    }
+
+    private void assertEvicted(Long id, String number) {
+        assertNull(cacheManager.getCache(AppConstants.Cache.ORDERS_CACHE).get(id));
+        assertNull(cacheManager.getCache(AppConstants.Cache.ORDERS_CACHE).get(number));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", AppConstants.Cache.ORDERS_CACHE)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,130 @@
+package com.ddd.demo;
+
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.email.outbox.poll-interval-ms=3600000")
+@ActiveProfiles("test")
+public class OrderCancellationStockRestoreTest {
+
+    private static final int ORDERS = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentCancellationsRestoreEveryUnitAndReactivateProducts() throws Exception {
+        String suffix = TestFixtures.suffix();
+        Product sold = createProduct("RS-" + suffix + "A", 0, Product.ProductStatus.OUT_OF_STOCK);
+        Product partial = createProduct("RS-" + suffix + "B", 5, Product.ProductStatus.ACTIVE);
+        List<Long> orderIds = createOrders(suffix, sold, partial);
+
+        // Cached before the cancellations, must not be served afterwards
+        assertEquals(0, productService.getProductById(sold.getId()).getStockQuantity());
+        assertEquals(0, productService.getProductBySku(sold.getSku()).getStockQuantity());
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            results.add(executor.submit(() -> {
+                start.await();
+                orderService.cancelOrder(orderId, "Changed my mind");
+                return null;
+            }));
+        }
+        // Reservations against the other product race with the restores
+        for (int i = 0; i < 5; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                productService.reserveStock(Map.of(partial.getId(), 1));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+
+        // Each order held one line of 1 and one line of 2 on the sold out product, and 1 of the other
+        Product restored = productRepository.findById(sold.getId()).orElseThrow();
+        assertEquals(ORDERS * 3, restored.getStockQuantity());
+        assertEquals(Product.ProductStatus.ACTIVE, restored.getStatus());
+        assertEquals(5 + ORDERS - 5, productRepository.findById(partial.getId()).orElseThrow().getStockQuantity());
+        assertEquals(ORDERS * 3, productService.getProductById(sold.getId()).getStockQuantity());
+        assertEquals(ORDERS * 3, productService.getProductBySku(sold.getSku()).getStockQuantity());
+        orderIds.forEach(id ->
+                assertEquals(Order.OrderStatus.CANCELLED, orderRepository.findById(id).orElseThrow().getStatus()));
+    }
+
+    private List<Long> createOrders(String suffix, Product sold, Product partial) {
+        return transactionTemplate.execute(status -> {
+            User user = fixtures.createUser("restore");
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = Order.builder()
+                        .orderNumber("RS" + suffix + String.format("%03d", i))
+                        .user(user)
+                        .paymentMethod(Order.PaymentMethod.CASH_ON_DELIVERY)
+                        .subtotal(new BigDecimal("60000.00"))
+                        .totalAmount(new BigDecimal("60000.00"))
+                        .build();
+                order.addOrderItem(TestFixtures.item(sold, 1));
+                order.addOrderItem(TestFixtures.item(sold, 2));
+                order.addOrderItem(TestFixtures.item(partial, 1));
+                ids.add(orderRepository.save(order).getId());
+            }
+            return ids;
+        });
+    }
+
+    private Product createProduct(String sku, int stock, Product.ProductStatus status) {
+        return productRepository.save(Product.builder()
+                .productName("Restore product " + sku)
+                .price(new BigDecimal("15000.00"))
+                .stockQuantity(stock)
+                .sku(sku)
+                .category("restore")
+                .status(status)
+                .build());
+    }
+}
@@ -0,0 +1,201 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.dto.order.OrderItemRequest;
+import com.ddd.demo.dto.order.OrderRequest;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.ShippingAddressRequest;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.repository.UserRepository;
+import com.ddd.demo.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fires concurrent checkouts through OrderService.createOrder at a few products with less stock
+ * than is asked for, then checks that no product went negative and that every committed order
+ * line took its units from stock. Throughput and latency percentiles are logged.
+ * <p>
+ * Defaults keep the run short; scale it up with
+ * {@code mvn test -Dtest=OrderCheckoutStressTest -Dstress.threads=64 -Dstress.orders-per-thread=200}.
+ * {@code -Dstress.max-p99-ms} fails the run when p99 latency exceeds the given budget.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.ddd.demo=INFO",
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class OrderCheckoutStressTest {
+
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final int ORDERS_PER_THREAD = Integer.getInteger("stress.orders-per-thread", 25);
+    private static final int PRODUCTS = Integer.getInteger("stress.products", 5);
+    private static final int STOCK_PER_PRODUCT = Integer.getInteger("stress.stock-per-product", 60);
+    private static final long SEED = Long.getLong("stress.seed", 42L);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCheckoutsNeverOversellOrLoseDecrements() throws Exception {
+        List<Long> productIds = createProducts();
+        List<Long> userIds = createUsers();
+        Map<Long, AtomicInteger> sold = new ConcurrentHashMap<>();
+        productIds.forEach(productId -> sold.put(productId, new AtomicInteger()));
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        long[] latencies = new long[THREADS * ORDERS_PER_THREAD];
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(executor.submit(() -> {
+                // One seeded generator per thread, so each run asks for the same carts
+                Random random = new Random(SEED + thread);
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    OrderRequest request = request(randomCart(random, productIds));
+                    long begin = System.nanoTime();
+                    try {
+                        OrderResponse order = orderService.createOrder(userIds.get(thread), request);
+                        order.getOrderItems().forEach(item ->
+                                sold.get(item.getProduct().getId()).addAndGet(item.getQuantity()));
+                        placed.incrementAndGet();
+                    } catch (BusinessException e) {
+                        rejected.incrementAndGet();
+                    } catch (Exception e) {
+                        unexpected.add(e);
+                    } finally {
+                        latencies[thread * ORDERS_PER_THREAD + i] = System.nanoTime() - begin;
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        double throughput = latencies.length / (elapsed / 1_000_000_000.0);
+        double p50 = percentileMillis(latencies, 0.50);
+        double p99 = percentileMillis(latencies, 0.99);
+        log.info("Checkout stress: {} threads x {} orders on {} products -> {} placed, {} rejected, "
+                        + "{} orders/s, p50 {} ms, p99 {} ms, max {} ms",
+                THREADS, ORDERS_PER_THREAD, PRODUCTS, placed.get(), rejected.get(),
+                String.format("%.1f", throughput), String.format("%.2f", p50), String.format("%.2f", p99),
+                String.format("%.2f", latencies[latencies.length - 1] / 1_000_000.0));
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        // Demand is above supply, so the contended path must have turned orders away
+        assertTrue(placed.get() > 0);
+        assertTrue(rejected.get() > 0);
+
+        for (Long productId : productIds) {
+            Product product = productRepository.findById(productId).orElseThrow();
+            int committedUnits = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE product_id = ?", Integer.class, productId);
+
+            assertTrue(product.getStockQuantity() >= 0, "Stock went negative for product " + productId);
+            assertEquals(sold.get(productId).get(), committedUnits, "Order lines lost for product " + productId);
+            assertEquals(STOCK_PER_PRODUCT - committedUnits, product.getStockQuantity(),
+                    "Stock decrements lost for product " + productId);
+        }
+
+        Long maxP99 = Long.getLong("stress.max-p99-ms");
+        if (maxP99 != null) {
+            assertTrue(p99 <= maxP99, "p99 " + p99 + " ms is over the " + maxP99 + " ms budget");
+        }
+    }
+
+    private double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    // One to three distinct products, one to three units each
+    private List<OrderItemRequest> randomCart(Random random, List<Long> productIds) {
+        List<Long> shuffled = new ArrayList<>(productIds);
+        Collections.shuffle(shuffled, random);
+        int lines = 1 + random.nextInt(Math.min(3, shuffled.size()));
+        return shuffled.subList(0, lines).stream()
+                .map(productId -> OrderItemRequest.builder()
+                        .productId(productId)
+                        .quantity(1 + random.nextInt(3))
+                        .build())
+                .toList();
+    }
+
+    private OrderRequest request(List<OrderItemRequest> items) {
+        return OrderRequest.builder()
+                .items(items)
+                .shippingAddress(ShippingAddressRequest.builder()
+                        .recipientName("Stress Buyer")
+                        .phoneNumber("0123456789")
+                        .streetAddress("1 Main Street")
+                        .city("Seoul")
+                        .build())
+                .paymentMethod("CASH_ON_DELIVERY")
+                .shippingMethod("STANDARD")
+                .build();
+    }
+
+    private List<Long> createProducts() {
+        return IntStream.range(0, PRODUCTS)
+                .mapToObj(i -> fixtures.createProduct("stress", "10000.00", STOCK_PER_PRODUCT).getId())
+                .toList();
+    }
+
+    private List<Long> createUsers() {
+        List<User> users = IntStream.range(0, THREADS)
+                .mapToObj(i -> TestFixtures.user("stress"))
+                .toList();
+        return userRepository.saveAll(users).stream().map(User::getId).toList();
+    }
+}
@@ -0,0 +1,158 @@
+package com.ddd.demo;
+
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderRollupService;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.order.OrderDateBackfill;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.ddd.demo.OrderDateQueryPlanTest$LastStatement"
+})
+@ActiveProfiles("test")
+public class OrderDateQueryPlanTest {
+
+    // Days well away from the ones other tests write to the shared database
+    private static final LocalDate DAY_ONE = LocalDate.of(2001, 3, 1);
+    private static final LocalDate DAY_TWO = DAY_ONE.plusDays(1);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private OrderDateBackfill orderDateBackfill;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void orderDateIsTheDayTheOrderWasCreated() {
+        Order order = createOrder(Order.PaymentStatus.UNPAID);
+
+        Order saved = orderRepository.findById(order.getId()).orElseThrow();
+        assertNotNull(saved.getOrderDate());
+        assertEquals(saved.getCreatedAt().toLocalDate(), saved.getOrderDate());
+    }
+
+    @Test
+    void orderSummaryIsAHalfOpenRangeOnTheCompositeIndex() {
+        Order first = createOrder(Order.PaymentStatus.PAID);
+        Order unpaid = createOrder(Order.PaymentStatus.UNPAID);
+        Order nextDay = createOrder(Order.PaymentStatus.PAID);
+        Order dayAfter = createOrder(Order.PaymentStatus.PAID);
+        setOrderDate(first, DAY_ONE);
+        setOrderDate(unpaid, DAY_ONE);
+        setOrderDate(nextDay, DAY_TWO);
+        setOrderDate(dayAfter, DAY_TWO.plusDays(1));
+
+        Object[] summary = orderRepository.getOrderSummaryByDateRange(DAY_ONE, DAY_TWO.plusDays(1)).get(0);
+        String sql = LastStatement.sql;
+
+        // The end day is excluded and unpaid orders count but add no revenue
+        assertEquals(3L, ((Number) summary[0]).longValue());
+        assertEquals(0, new BigDecimal("30000.00").compareTo(new BigDecimal(summary[1].toString())));
+
+        // No function wraps the column, so the range is answered from (orderDate, paymentStatus)
+        assertFalse(sql.toLowerCase().contains("cast("), sql);
+        String plan = explain(sql, DAY_ONE, DAY_TWO.plusDays(1));
+        assertTrue(plan.contains("IDX_ORDER_DATE_PAYMENT_STATUS"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void statisticsIncludeEveryOrderOnTheEndDay() {
+        LocalDate day = DAY_ONE.plusDays(10);
+        Order lateOrder = createOrder(Order.PaymentStatus.PAID);
+        // The last second of the day used to fall outside an end bound of 23:59:59
+        jdbcTemplate.update("UPDATE orders SET createdAt = ?, orderDate = ? WHERE id = ?",
+                day.atTime(23, 59, 59, 500_000_000), day, lateOrder.getId());
+        // The statistics read the daily rollup, so the moved order is summed into its new day
+        orderRollupService.rebuild(day, day);
+
+        Map<String, Object> stats = orderService.getOrderStatistics(day, day);
+
+        assertEquals(1L, stats.get("totalOrders"));
+        assertEquals(0, new BigDecimal("15000.00").compareTo((BigDecimal) stats.get("totalRevenue")));
+    }
+
+    @Test
+    void deliveredTodayIsAHalfOpenRangeOnShippedDate() {
+        Order today = createOrder(Order.PaymentStatus.PAID);
+        Order yesterday = createOrder(Order.PaymentStatus.PAID);
+        ship(today, LocalDate.now().atStartOfDay());
+        ship(yesterday, LocalDate.now().atStartOfDay().minusNanos(1000));
+
+        List<Long> ids = orderRepository.findOrdersToBeDeliveredToday().stream().map(Order::getId).toList();
+
+        assertTrue(ids.contains(today.getId()));
+        assertFalse(ids.contains(yesterday.getId()));
+        assertFalse(LastStatement.sql.toLowerCase().contains("cast("), LastStatement.sql);
+    }
+
+    @Test
+    void backfillFillsRowsWithoutAnOrderDate() {
+        Order order = createOrder(Order.PaymentStatus.UNPAID);
+        jdbcTemplate.update("UPDATE orders SET orderDate = NULL WHERE id = ?", order.getId());
+
+        orderDateBackfill.backfill();
+
+        LocalDate orderDate = jdbcTemplate.queryForObject(
+                "SELECT orderDate FROM orders WHERE id = ?", LocalDate.class, order.getId());
+        assertEquals(order.getCreatedAt().toLocalDate(), orderDate);
+    }
+
+    private String explain(String sql, Object... parameters) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    }
+
+    private void setOrderDate(Order order, LocalDate orderDate) {
+        jdbcTemplate.update("UPDATE orders SET orderDate = ? WHERE id = ?", orderDate, order.getId());
+    }
+
+    private void ship(Order order, LocalDateTime shippedDate) {
+        jdbcTemplate.update("UPDATE orders SET status = 'SHIPPED', shippedDate = ? WHERE id = ?",
+                shippedDate, order.getId());
+    }
+
+    private Order createOrder(Order.PaymentStatus paymentStatus) {
+        return fixtures.createOrder("daily", TestFixtures.DEFAULT_PRICE, 1,
+                order -> order.setPaymentStatus(paymentStatus));
+    }
+
+    // Records the last SQL Hibernate prepared, so the plan is checked for the statement actually sent
+    public static class LastStatement implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String statement) {
+            sql = statement;
+            return statement;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.ddd.demo;
+
+import com.ddd.demo.dto.order.OrderStatusEvent;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.event.OrderChangedEvent;
+import com.ddd.demo.event.OrderSnapshot;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.order.OrderEventStream;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.order.events.buffer-size=16",
+        "app.order.events.heartbeat-ms=3600000"
+})
+@ActiveProfiles("test")
+public class OrderEventStreamTest {
+
+    @Autowired
+    private OrderEventStream orderEventStream;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void committedChangesReachOnlyWatchersOfThatOrder() throws Exception {
+        Long watched = fixtures.createOrder("stream", 1).getId();
+        Long other = fixtures.createOrder("stream", 1).getId();
+        RecordingEmitter watcher = new RecordingEmitter();
+        RecordingEmitter bystander = new RecordingEmitter();
+        orderEventStream.attach(watched, watcher, () -> orderService.getOrderStatus(watched));
+        orderEventStream.attach(other, bystander, () -> orderService.getOrderStatus(other));
+        await(() -> watcher.events.size() == 1 && bystander.events.size() == 1);
+        assertTrue(watcher.events.get(0).contains("\"status\":\"PENDING\""));
+
+        orderService.updatePaymentStatus(watched, Order.PaymentStatus.PAID);
+
+        await(() -> watcher.events.size() == 2);
+        String change = watcher.events.get(1);
+        assertTrue(change.startsWith("event:order-status\n"));
+        assertTrue(change.contains("\"paymentStatus\":\"PAID\""));
+        assertTrue(change.contains("\"status\":\"CONFIRMED\""));
+        Thread.sleep(100);
+        assertEquals(1, bystander.events.size());
+    }
+
+    @Test
+    void changeCommittedWhileSubscribingIsNotLost() throws Exception {
+        Long orderId = fixtures.createOrder("stream", 1).getId();
+        // Warm the order cache with the PENDING state
+        orderService.getOrderById(orderId);
+        RecordingEmitter watcher = new RecordingEmitter();
+
+        // The payment commits after the watcher is registered but before its current state is read
+        orderEventStream.attach(orderId, watcher, () -> {
+            orderService.updatePaymentStatus(orderId, Order.PaymentStatus.PAID);
+            return orderService.getOrderStatus(orderId);
+        });
+
+        await(() -> watcher.events.size() == 2);
+        assertTrue(watcher.events.stream().allMatch(event -> event.contains("\"paymentStatus\":\"PAID\"")));
+    }
+
+    @Test
+    void slowWatcherKeepsTheLatestEventsWithoutBlockingThePublisher() throws Exception {
+        Long orderId = 1_000_000L + System.nanoTime() % 1_000_000;
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        double droppedBefore = meterRegistry.counter("order.events.dropped").count();
+
+        orderEventStream.attach(orderId, slow, () -> OrderStatusEvent.builder().orderId(orderId).build());
+        await(() -> slow.sendsStarted.get() == 1);
+        for (int i = 0; i < 100; i++) {
+            orderEventStream.onOrderChanged(new OrderChangedEvent(
+                    snapshot(orderId, "TRK-" + (i - 1)), snapshot(orderId, "TRK-" + i)));
+        }
+        // The publisher returned while the first send is still stuck
+        assertEquals(0, slow.events.size());
+        release.countDown();
+
+        await(() -> slow.events.size() == 17);
+        assertTrue(slow.events.get(16).contains("TRK-99"));
+        assertTrue(slow.events.get(1).contains("TRK-84"));
+        assertEquals(84, meterRegistry.counter("order.events.dropped").count() - droppedBefore);
+    }
+
+    @Test
+    void brokenConnectionsAreDroppedAndIdleOnesGetHeartbeats() throws Exception {
+        int before = orderEventStream.getWatcherCount();
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.fail = true;
+        RecordingEmitter idle = new RecordingEmitter();
+
+        orderEventStream.attach(-1L, broken, () -> OrderStatusEvent.builder().orderId(-1L).build());
+        orderEventStream.attach(-2L, idle, () -> OrderStatusEvent.builder().orderId(-2L).build());
+        await(() -> orderEventStream.getWatcherCount() == before + 1 && idle.events.size() == 1);
+
+        orderEventStream.sendHeartbeats();
+        await(() -> idle.events.size() == 2);
+        assertEquals(":heartbeat\n\n", idle.events.get(1));
+    }
+
+    private OrderSnapshot snapshot(Long orderId, String trackingNumber) {
+        return OrderSnapshot.builder()
+                .orderId(orderId)
+                .orderNumber("EV" + orderId)
+                .status(Order.OrderStatus.SHIPPED)
+                .paymentStatus(Order.PaymentStatus.PAID)
+                .trackingNumber(trackingNumber)
+                .lines(List.of())
+                .build();
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out waiting for the stream");
+            Thread.sleep(10);
+        }
+    }
+
+    // Records what would be written to the response; sends block until released
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final AtomicInteger sendsStarted = new AtomicInteger();
+        private final CountDownLatch release;
+        private volatile boolean fail;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) throws IOException {
+            sendsStarted.incrementAndGet();
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            events.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.entity.job.JobCheckpoint;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.JobCheckpointRepository;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.service.OrderExpiryService;
+import com.ddd.demo.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.order.expiry.interval-ms=3600000",
+        "app.order.expiry.unpaid-ttl=30m",
+        "app.order.expiry.chunk-size=2"
+})
+@ActiveProfiles("test")
+public class OrderExpiryJobTest {
+
+    private static final String JOB_NAME = "order-expiry";
+
+    @Autowired
+    private OrderExpiryService orderExpiryService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void expiresAbandonedOrdersInChunksAndReleasesStock() {
+        Fixture fixture = createFixture();
+        double expiredBefore = meterRegistry.counter("order.expiry.expired").count();
+        long batchesBefore = meterRegistry.timer("order.expiry.batch").count();
+
+        int expired = orderExpiryService.expireUnpaidOrders();
+
+        // Five abandoned orders with a chunk size of two take at least three chunks
+        assertTrue(expired >= 5);
+        fixture.expiredIds.forEach(id -> {
+            Order order = orderRepository.findById(id).orElseThrow();
+            assertEquals(Order.OrderStatus.CANCELLED, order.getStatus());
+            assertNotNull(order.getCancelledDate());
+            assertNotNull(order.getCancellationReason());
+        });
+        fixture.keptIds.forEach(id ->
+                assertEquals(Order.OrderStatus.PENDING, orderRepository.findById(id).orElseThrow().getStatus()));
+        assertEquals(100 + 5 * 2, productRepository.findById(fixture.productId).orElseThrow().getStockQuantity());
+
+        assertEquals(expired, meterRegistry.counter("order.expiry.expired").count() - expiredBefore);
+        assertTrue(meterRegistry.timer("order.expiry.batch").count() - batchesBefore >= 3);
+        assertEquals(JobCheckpoint.RunStatus.COMPLETED,
+                checkpointRepository.findById(JOB_NAME).orElseThrow().getStatus());
+
+        // Nothing left to expire on the next run
+        assertEquals(0, orderExpiryService.expireUnpaidOrders());
+    }
+
+    @Test
+    void paymentAfterExpiryIsRejected() {
+        Fixture fixture = createFixture();
+        orderExpiryService.expireUnpaidOrders();
+        Long expiredId = fixture.expiredIds.get(0);
+
+        assertThrows(BusinessException.class,
+                () -> orderService.updatePaymentStatus(expiredId, Order.PaymentStatus.PAID));
+
+        Order order = orderRepository.findById(expiredId).orElseThrow();
+        assertEquals(Order.OrderStatus.CANCELLED, order.getStatus());
+        assertEquals(Order.PaymentStatus.UNPAID, order.getPaymentStatus());
+        assertNull(order.getPaymentDate());
+    }
+
+    @Test
+    void interruptedRunResumesAfterTheLastCommittedChunk() {
+        Fixture fixture = createFixture();
+        orderExpiryService.expireUnpaidOrders();
+        Fixture pending = createFixture();
+        Long firstId = pending.expiredIds.get(0);
+
+        // Simulate a crash after the first order of an earlier run was committed
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(30);
+        transactionTemplate.executeWithoutResult(status -> {
+            JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElseThrow();
+            checkpoint.startRun(cutoff, LocalDateTime.now());
+            checkpoint.advance(firstId, 1, LocalDateTime.now());
+        });
+
+        assertEquals(4, orderExpiryService.expireUnpaidOrders());
+        assertEquals(Order.OrderStatus.PENDING, orderRepository.findById(firstId).orElseThrow().getStatus());
+        pending.expiredIds.subList(1, 5).forEach(id ->
+                assertEquals(Order.OrderStatus.CANCELLED, orderRepository.findById(id).orElseThrow().getStatus()));
+        JobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME).orElseThrow();
+        assertEquals(JobCheckpoint.RunStatus.COMPLETED, checkpoint.getStatus());
+        assertEquals(5, checkpoint.getProcessedCount());
+
+        // A fresh run starts from the beginning with a new cutoff
+        assertEquals(1, orderExpiryService.expireUnpaidOrders());
+        assertEquals(Order.OrderStatus.CANCELLED, orderRepository.findById(firstId).orElseThrow().getStatus());
+        assertEquals(Order.OrderStatus.CANCELLED,
+                orderRepository.findById(fixture.expiredIds.get(0)).orElseThrow().getStatus());
+    }
+
+    private Fixture createFixture() {
+        return transactionTemplate.execute(status -> {
+            String suffix = TestFixtures.suffix();
+            User user = fixtures.createUser("expiry");
+            Product product = fixtures.createProduct("expiry", "15000.00", 100);
+
+            Fixture fixture = new Fixture(product.getId());
+            List<Long> stale = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                Long id = createOrder(user, product, suffix + "X" + i, Order.PaymentMethod.CREDIT_CARD);
+                fixture.expiredIds.add(id);
+                stale.add(id);
+            }
+            // Cash on delivery is paid at the door, so it never expires
+            Long cod = createOrder(user, product, suffix + "C", Order.PaymentMethod.CASH_ON_DELIVERY);
+            fixture.keptIds.add(cod);
+            stale.add(cod);
+            // Still within the payment window
+            fixture.keptIds.add(createOrder(user, product, suffix + "R", Order.PaymentMethod.CREDIT_CARD));
+
+            entityManager.flush();
+            // createdAt is not updatable through JPQL, so backdate with plain SQL
+            entityManager.createNativeQuery("UPDATE orders SET createdAt = :createdAt WHERE id IN :ids")
+                    .setParameter("createdAt", LocalDateTime.now().minusHours(2))
+                    .setParameter("ids", stale)
+                    .executeUpdate();
+            return fixture;
+        });
+    }
+
+    private Long createOrder(User user, Product product, String number, Order.PaymentMethod paymentMethod) {
+        Order order = TestFixtures.order("EX" + number, user, product, 2);
+        order.setPaymentMethod(paymentMethod);
+        return orderRepository.save(order).getId();
+    }
+
+    private static class Fixture {
+        private final Long productId;
+        private final List<Long> expiredIds = new ArrayList<>();
+        private final List<Long> keptIds = new ArrayList<>();
+
+        private Fixture(Long productId) {
+            this.productId = productId;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.common.response.PageResponse;
+import com.ddd.demo.common.utils.KeysetCursor;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class OrderKeysetPaginationTest {
+
+    private static final int ORDER_COUNT = 25;
+    private static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void cursorWalksAllOrdersNewestFirstWithoutCounting() {
+        // Half the orders share a timestamp so the id tie-breaker is exercised
+        User user = createUserWithOrders();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = "";
+        do {
+            statistics.clear();
+            Window<OrderResponse> window = orderService.getUserOrders(
+                    user.getId(), null, KeysetCursor.decode(cursor), PAGE_SIZE);
+            PageResponse<OrderResponse> page = PageResponse.from(window, PAGE_SIZE, cursor.isEmpty());
+
+            // Page with users, the same page of the archive, then items with products; no COUNT
+            assertEquals(3, statistics.getPrepareStatementCount());
+            assertNull(page.getTotalElements());
+            page.getContent().forEach(order -> assertEquals(2, order.getOrderItems().size()));
+            page.getContent().forEach(order -> seen.add(order.getId()));
+            pageSizes.add(page.getContent().size());
+            assertEquals(page.getNextCursor() == null, page.isLast());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        List<Long> expected = orderRepository.findAll().stream()
+                .filter(order -> order.getUser().getId().equals(user.getId()))
+                .sorted((a, b) -> {
+                    int byCreatedAt = b.getCreatedAt().compareTo(a.getCreatedAt());
+                    return byCreatedAt != 0 ? byCreatedAt : b.getId().compareTo(a.getId());
+                })
+                .map(Order::getId)
+                .toList();
+        assertEquals(expected, seen);
+        assertEquals(ORDER_COUNT / 2, orderRepository.findAll().stream()
+                .filter(order -> order.getUser().getId().equals(user.getId()))
+                .map(Order::getCreatedAt)
+                .filter(createdAt -> createdAt.getNano() == 0)
+                .count());
+    }
+
+    @Test
+    void statusFilterIsAppliedInCursorMode() {
+        User user = createUserWithOrders();
+
+        Window<OrderResponse> window = orderService.getUserOrders(
+                user.getId(), Order.OrderStatus.CONFIRMED, KeysetCursor.decode(null), PAGE_SIZE);
+
+        assertEquals(5, window.size());
+        assertFalse(window.hasNext());
+        window.forEach(order -> assertEquals(Order.OrderStatus.CONFIRMED, order.getStatus()));
+    }
+
+    @Test
+    void cursorRoundTripsAndRejectsGarbage() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123456000);
+        String cursor = KeysetCursor.encode(ScrollPosition.forward(
+                Map.of("createdAt", createdAt, "id", 42L)));
+
+        assertEquals(createdAt, KeysetCursor.decode(cursor).getKeys().get("createdAt"));
+        assertEquals(42L, KeysetCursor.decode(cursor).getKeys().get("id"));
+        assertThrows(BusinessException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+
+    private User createUserWithOrders() {
+        return transactionTemplate.execute(status -> {
+            String suffix = TestFixtures.suffix();
+            User user = fixtures.createUser("seek");
+            List<Product> products = List.of(fixtures.createProduct("keyset", "15000.00", 100),
+                    fixtures.createProduct("keyset", "15000.00", 100));
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                Order order = Order.builder()
+                        .orderNumber("SK" + suffix + String.format("%03d", i))
+                        .user(user)
+                        .status(i % 5 == 0 ? Order.OrderStatus.CONFIRMED : Order.OrderStatus.PENDING)
+                        .paymentMethod(Order.PaymentMethod.CASH_ON_DELIVERY)
+                        .subtotal(new BigDecimal("30000.00"))
+                        .totalAmount(new BigDecimal("30000.00"))
+                        .build();
+                products.forEach(product -> order.addOrderItem(TestFixtures.item(product, 1)));
+                ids.add(orderRepository.save(order).getId());
+            }
+            entityManager.flush();
+            // createdAt is not updatable through JPQL, so share a timestamp with plain SQL
+            entityManager.createNativeQuery("UPDATE orders SET createdAt = :createdAt WHERE id IN :ids")
+                    .setParameter("createdAt", LocalDateTime.now().withNano(0))
+                    .setParameter("ids", ids.subList(0, ORDER_COUNT / 2))
+                    .executeUpdate();
+            return user;
+        });
+    }
+}
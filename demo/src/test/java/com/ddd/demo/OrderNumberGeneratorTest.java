@@ -0,0 +1,124 @@
+package com.ddd.demo;
+
+import com.ddd.demo.service.order.SnowflakeOrderNumberGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderNumberGeneratorTest {
+
+    private static final int THREADS = 32;
+    private static final int NUMBERS_PER_THREAD = 50_000;
+
+    @Test
+    void concurrentGenerationProducesUniqueIncreasingNumbers() throws Exception {
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(7);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                String previous = "";
+                for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                    String orderNumber = generator.nextOrderNumber();
+                    // Fixed-width encoding, so string order follows generation order within a thread
+                    if (orderNumber.compareTo(previous) <= 0 || !seen.add(orderNumber)) {
+                        return false;
+                    }
+                    previous = orderNumber;
+                }
+                return true;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        assertEquals(THREADS * NUMBERS_PER_THREAD, seen.size());
+        seen.forEach(orderNumber -> assertTrue(orderNumber.length() <= 20, orderNumber));
+    }
+
+    @Test
+    void exhaustedSequenceAndClockRollbackDoNotRepeat() {
+        ManualClock clock = new ManualClock(Instant.parse("2030-01-01T00:00:00Z").toEpochMilli());
+        SnowflakeOrderNumberGenerator generator = new SnowflakeOrderNumberGenerator(1, clock);
+
+        // More ids than one millisecond's sequence holds, without the clock moving
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+
+        clock.millis -= 5_000;
+        assertTrue(generator.nextId() > previous);
+    }
+
+    @Test
+    void differentNodesNeverShareNumbers() {
+        Clock frozen = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+        SnowflakeOrderNumberGenerator first = new SnowflakeOrderNumberGenerator(1, frozen);
+        SnowflakeOrderNumberGenerator second = new SnowflakeOrderNumberGenerator(2, frozen);
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(numbers.add(first.nextOrderNumber()));
+            assertTrue(numbers.add(second.nextOrderNumber()));
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderNumberGenerator(1024));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderNumberGenerator(-1));
+    }
+
+    private static class ManualClock extends Clock {
+        private long millis;
+
+        ManualClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.ConflictException;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.order.OptimisticLockRetryExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.order.optimistic-retry.max-attempts=3",
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class OrderOptimisticLockRetryTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OptimisticLockRetryExecutor retryExecutor;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void staleWriteIsRetriedWithFreshState() {
+        Long orderId = createOrder(Order.OrderStatus.PROCESSING);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String trackingNumber = retryExecutor.execute("staleWriteTest", () -> {
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            if (attempts.incrementAndGet() == 1) {
+                // Another writer commits between our read and our write
+                updateInNewTransaction(orderId, other -> other.setNotes("changed concurrently"));
+            }
+            order.setTrackingNumber("TRK-" + attempts.get());
+            return order.getTrackingNumber();
+        });
+
+        assertEquals(2, attempts.get());
+        assertEquals("TRK-2", trackingNumber);
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertEquals("TRK-2", order.getTrackingNumber());
+        assertEquals("changed concurrently", order.getNotes());
+        assertEquals(1.0, meterRegistry.counter("order.mutation.conflicts", "operation", "staleWriteTest").count());
+        assertEquals(1.0, meterRegistry.counter("order.mutation.retries", "operation", "staleWriteTest").count());
+    }
+
+    @Test
+    void persistentConflictGivesUpWithConflictException() {
+        Long orderId = createOrder(Order.OrderStatus.PROCESSING);
+
+        assertThrows(ConflictException.class, () -> retryExecutor.execute("alwaysStaleTest", () -> {
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            updateInNewTransaction(orderId, other -> other.setNotes(UUID.randomUUID().toString()));
+            order.setTrackingNumber("never");
+            return null;
+        }));
+
+        assertEquals(3.0, meterRegistry.counter("order.mutation.attempts", "operation", "alwaysStaleTest").count());
+        assertEquals(1.0, meterRegistry.counter("order.mutation.exhausted", "operation", "alwaysStaleTest").count());
+        assertNull(orderRepository.findById(orderId).orElseThrow().getTrackingNumber());
+    }
+
+    @Test
+    void concurrentPaymentAndShippingUpdatesAreBothKept() throws Exception {
+        int rounds = 10;
+        for (int round = 0; round < rounds; round++) {
+            Long orderId = createOrder(Order.OrderStatus.PROCESSING);
+            String trackingNumber = "TRK-" + round;
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                start.await();
+                orderService.updatePaymentStatus(orderId, Order.PaymentStatus.PAID);
+                return null;
+            }));
+            futures.add(executor.submit(() -> {
+                start.await();
+                orderService.updateShippingInfo(orderId, trackingNumber);
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            assertEquals(Order.PaymentStatus.PAID, order.getPaymentStatus());
+            assertEquals(trackingNumber, order.getTrackingNumber());
+            assertEquals(Order.OrderStatus.SHIPPED, order.getStatus());
+            assertEquals(2L, order.getVersion());
+        }
+    }
+
+    private void updateInNewTransaction(Long orderId, java.util.function.Consumer<Order> change) {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> change.accept(orderRepository.findById(orderId).orElseThrow()));
+    }
+
+    private Long createOrder(Order.OrderStatus status) {
+        return fixtures.createOrder("lock", "10000.00", 1, order -> {
+            order.setStatus(status);
+            order.setPaymentMethod(Order.PaymentMethod.BANK_TRANSFER);
+        }).getId();
+    }
+}
@@ -0,0 +1,84 @@
+package com.ddd.demo;
+
+import com.ddd.demo.dto.order.OrderStatusUpdateRequest;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.service.OrderRollupService;
+import com.ddd.demo.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global, so keep the outbox poller from adding statements mid-test
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class OrderOwnershipCheckTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Rollup deltas are applied asynchronously after commit and would race into the global statement count
+    @MockBean
+    private OrderRollupService orderRollupService;
+
+    @Test
+    void ownershipIsOneStatementThenCached() {
+        Order order = fixtures.createOrder("owner", 1);
+        Long ownerId = order.getUser().getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertTrue(orderService.isOrderOwner(order.getId(), ownerId));
+        // Owner and status only: no entity is loaded, users are not joined
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertFalse(orderService.isOrderOwner(order.getId(), ownerId + 1));
+        assertTrue(orderService.canCancelOrder(order.getId(), ownerId));
+        assertFalse(orderService.canCancelOrder(order.getId(), ownerId + 1));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void statusChangeEvictsTheCachedStatus() {
+        Order order = fixtures.createOrder("owner", 1);
+        Long ownerId = order.getUser().getId();
+        assertTrue(orderService.canCancelOrder(order.getId(), ownerId));
+
+        orderService.updateOrderStatus(order.getId(), OrderStatusUpdateRequest.builder()
+                .status(Order.OrderStatus.CONFIRMED)
+                .build());
+        assertTrue(orderService.canCancelOrder(order.getId(), ownerId));
+        orderService.updateOrderStatus(order.getId(), OrderStatusUpdateRequest.builder()
+                .status(Order.OrderStatus.PROCESSING)
+                .build());
+        orderService.updateOrderStatus(order.getId(), OrderStatusUpdateRequest.builder()
+                .status(Order.OrderStatus.SHIPPED)
+                .build());
+
+        assertFalse(orderService.canCancelOrder(order.getId(), ownerId));
+        assertTrue(orderService.isOrderOwner(order.getId(), ownerId));
+    }
+
+    @Test
+    void unknownOrderIsNotOwned() {
+        assertFalse(orderService.isOrderOwner(Long.MAX_VALUE, 1L));
+        assertFalse(orderService.canCancelOrder(Long.MAX_VALUE, 1L));
+    }
+}
@@ -0,0 +1,177 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.ResourceNotFoundException;
+import com.ddd.demo.dto.coupon.CouponRequest;
+import com.ddd.demo.dto.order.OrderItemRequest;
+import com.ddd.demo.dto.order.OrderQuoteRequest;
+import com.ddd.demo.dto.order.OrderQuoteResponse;
+import com.ddd.demo.dto.order.OrderRequest;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.ShippingAddressRequest;
+import com.ddd.demo.dto.product.ProductRequest;
+import com.ddd.demo.entity.coupon.Coupon;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.service.CouponService;
+import com.ddd.demo.service.OrderRollupService;
+import com.ddd.demo.service.OrderService;
+import com.ddd.demo.service.ProductService;
+import com.ddd.demo.service.coupon.CouponUsageStore;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global, so keep the outbox poller from adding statements mid-test
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class OrderQuoteTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponUsageStore couponUsageStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Rollup deltas are applied asynchronously after commit and would race into the global statement count
+    @MockBean
+    private OrderRollupService orderRollupService;
+
+    @Test
+    void quoteMatchesTheOrderAndWritesNothing() {
+        Product book = fixtures.createProduct("books", "12500.00", 10);
+        Product toy = fixtures.createProduct("toys", "7300.00", 10);
+        String code = createCoupon();
+        OrderQuoteRequest quoteRequest = OrderQuoteRequest.builder()
+                .items(List.of(item(book.getId(), 2), item(toy.getId(), 3)))
+                .couponCode(code)
+                .shippingMethod("EXPRESS")
+                .build();
+
+        OrderQuoteResponse quote = orderService.quoteOrder(quoteRequest);
+        assertTrue(quote.isAvailable());
+        assertNull(quote.getCouponMessage());
+        assertTrue(quote.getDiscountAmount().signum() > 0);
+        assertEquals(2, quote.getItems().size());
+        assertEquals(0, new BigDecimal("25000.00").compareTo(quote.getItems().get(0).getTotalPrice()));
+        // Nothing reserved or redeemed
+        assertEquals(10, productRepository.findById(book.getId()).orElseThrow().getStockQuantity());
+        assertEquals(0, couponUsageStore.getUsage(code));
+
+        OrderResponse order = orderService.createOrder(fixtures.createUser("quote").getId(), OrderRequest.builder()
+                .items(quoteRequest.getItems())
+                .shippingAddress(ShippingAddressRequest.builder()
+                        .recipientName("Quote Buyer")
+                        .phoneNumber("0123456789")
+                        .streetAddress("1 Main Street")
+                        .city("Seoul")
+                        .build())
+                .couponCode(code)
+                .paymentMethod("CASH_ON_DELIVERY")
+                .shippingMethod("EXPRESS")
+                .build());
+        assertEquals(0, order.getSubtotal().compareTo(quote.getSubtotal()));
+        assertEquals(0, order.getDiscountAmount().compareTo(quote.getDiscountAmount()));
+        assertEquals(0, order.getTaxAmount().compareTo(quote.getTaxAmount()));
+        assertEquals(0, order.getShippingFee().compareTo(quote.getShippingFee()));
+        assertEquals(0, order.getTotalAmount().compareTo(quote.getTotalAmount()));
+    }
+
+    @Test
+    void repeatedQuoteIsServedFromTheCache() {
+        Product product = fixtures.createProduct("cached", "9900.00", 5);
+        OrderQuoteRequest request = OrderQuoteRequest.builder()
+                .items(List.of(item(product.getId(), 1)))
+                .build();
+        orderService.quoteOrder(request);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        OrderQuoteResponse again = orderService.quoteOrder(request);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, new BigDecimal("9900.00").compareTo(again.getSubtotal()));
+    }
+
+    @Test
+    void priceAndStockChangesEvictTheSnapshot() {
+        Product product = fixtures.createProduct("evict", "10000.00", 5);
+        OrderQuoteRequest request = OrderQuoteRequest.builder()
+                .items(List.of(item(product.getId(), 4)))
+                .build();
+        assertTrue(orderService.quoteOrder(request).isAvailable());
+
+        productService.updateProduct(product.getId(), ProductRequest.builder()
+                .price(new BigDecimal("11000.00"))
+                .build());
+        OrderQuoteResponse repriced = orderService.quoteOrder(request);
+        assertEquals(0, new BigDecimal("44000.00").compareTo(repriced.getSubtotal()));
+        assertEquals(0, new BigDecimal("11000.00").compareTo(repriced.getItems().get(0).getUnitPrice()));
+
+        productService.updateStock(product.getId(), 3);
+        OrderQuoteResponse shortOfStock = orderService.quoteOrder(request);
+        assertFalse(shortOfStock.isAvailable());
+        assertFalse(shortOfStock.getItems().get(0).isInStock());
+    }
+
+    @Test
+    void unusableCouponIsReportedNotApplied() {
+        Product product = fixtures.createProduct("nocoupon", "10000.00", 5);
+        OrderQuoteResponse quote = orderService.quoteOrder(OrderQuoteRequest.builder()
+                .items(List.of(item(product.getId(), 1)))
+                .couponCode("NOSUCHCOUPON")
+                .build());
+
+        assertNotNull(quote.getCouponMessage());
+        assertEquals(0, BigDecimal.ZERO.compareTo(quote.getDiscountAmount()));
+        assertEquals(0, new BigDecimal("10000.00").compareTo(quote.getSubtotal()));
+    }
+
+    @Test
+    void unknownProductIsNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> orderService.quoteOrder(OrderQuoteRequest.builder()
+                .items(List.of(item(Long.MAX_VALUE, 1)))
+                .build()));
+    }
+
+    private OrderItemRequest item(Long productId, int quantity) {
+        return OrderItemRequest.builder().productId(productId).quantity(quantity).build();
+    }
+
+    private String createCoupon() {
+        return couponService.createCoupon(CouponRequest.builder()
+                .code("Q" + UUID.randomUUID().toString().replace("-", "").substring(0, 10).toUpperCase())
+                .discountType(Coupon.DiscountType.PERCENT)
+                .discountValue(new BigDecimal("10"))
+                .category("books")
+                .build()).getCode();
+    }
+}
@@ -0,0 +1,111 @@
+package com.ddd.demo;
+
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global, so keep the outbox poller from adding statements mid-test
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class OrderReadPathQueryCountTest {
+
+    private static final int ORDER_COUNT = 25;
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void userOrderPageLoadsInFixedNumberOfStatements() {
+        User user = createUserWithOrders();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<OrderResponse> page = orderService.getUserOrders(user.getId(), null,
+                PageRequest.of(0, PAGE_SIZE, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        assertEquals(PAGE_SIZE, page.getContent().size());
+        assertEquals(ORDER_COUNT, page.getTotalElements());
+        page.getContent().forEach(order -> {
+            assertEquals(user.getUsername(), order.getUser().getUsername());
+            assertEquals(2, order.getOrderItems().size());
+            assertNotNull(order.getOrderItems().get(0).getProduct().getProductName());
+        });
+
+        // Page with users, total count, archived count, items with products
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void singleOrderLoadsInOneStatement() {
+        User user = createUserWithOrders();
+        Long orderId = orderRepository.findByUserId(user.getId(), PageRequest.of(0, 1)).getContent().get(0).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        OrderResponse order = orderService.getOrderById(orderId);
+
+        assertEquals(2, order.getOrderItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private User createUserWithOrders() {
+        return transactionTemplate.execute(status -> {
+            String suffix = TestFixtures.suffix();
+            User user = fixtures.createUser("reader");
+
+            List<Product> products = IntStream.range(0, 2)
+                    .mapToObj(i -> fixtures.createProduct("read-path", "15000.00", 100))
+                    .toList();
+
+            for (int i = 0; i < ORDER_COUNT; i++) {
+                Order order = Order.builder()
+                        .orderNumber("RP" + suffix + String.format("%03d", i))
+                        .user(user)
+                        .paymentMethod(Order.PaymentMethod.CASH_ON_DELIVERY)
+                        .subtotal(new BigDecimal("30000.00"))
+                        .totalAmount(new BigDecimal("30000.00"))
+                        .build();
+                products.forEach(product -> order.addOrderItem(TestFixtures.item(product, 1)));
+                orderRepository.save(order);
+            }
+            return user;
+        });
+    }
+}
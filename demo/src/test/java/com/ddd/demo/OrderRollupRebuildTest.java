@@ -0,0 +1,132 @@
+package com.ddd.demo;
+
+import com.ddd.demo.entity.order.DailyOrderRollup;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.DailyOrderRollupRepository;
+import com.ddd.demo.repository.OrderArchiveRepository;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderArchiveService;
+import com.ddd.demo.service.OrderRollupService;
+import com.ddd.demo.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "app.email.outbox.poll-interval-ms=3600000",
+        "app.order.archive.older-than=30d",
+        "app.order.archive.chunk-size=2"
+})
+@ActiveProfiles("test")
+public class OrderRollupRebuildTest {
+
+    // A day no other test writes orders to
+    private static final LocalDate DAY = LocalDate.of(2002, 5, 10);
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderArchiveService orderArchiveService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private DailyOrderRollupRepository rollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchiveRepository orderArchiveRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void rebuildCountsArchivedOrders() {
+        List<Long> ids = createOrders();
+        orderRollupService.rebuild(DAY, DAY);
+        List<String> before = rollupRows();
+        assertFalse(before.isEmpty());
+
+        orderArchiveService.archiveOrders();
+        // Delivered and refunded move to the archive; the pending order stays live, so the day spans both tiers
+        assertTrue(orderArchiveRepository.existsById(ids.get(0)));
+        assertTrue(orderArchiveRepository.existsById(ids.get(1)));
+        assertTrue(orderRepository.existsById(ids.get(2)));
+
+        orderRollupService.rebuild(DAY, DAY);
+        assertEquals(before, rollupRows());
+
+        // Totals and status counts are read from the rollup too, so the archived orders are not dropped
+        Map<String, Object> stats = orderService.getOrderStatistics(DAY, DAY);
+        assertEquals(3L, stats.get("totalOrders"));
+        assertEquals(0, new BigDecimal("24000.00").compareTo((BigDecimal) stats.get("totalRevenue")));
+    }
+
+    private List<String> rollupRows() {
+        return rollupRepository.findAll().stream()
+                .filter(row -> DAY.equals(row.getRollupDate()))
+                .map(this::describe)
+                .sorted()
+                .toList();
+    }
+
+    private String describe(DailyOrderRollup row) {
+        return String.join("|", row.getOrderStatus().name(), row.getPaymentStatus().name(),
+                row.getPaymentMethod().name(), row.getCategory(), row.getOrderCount().toString(),
+                row.getItemQuantity().toString(), row.getAmount().stripTrailingZeros().toPlainString());
+    }
+
+    private List<Long> createOrders() {
+        return transactionTemplate.execute(status -> {
+            String suffix = TestFixtures.suffix();
+            User user = fixtures.createUser("rollup");
+            Product product = fixtures.createProduct("rollup", "12000.00", 100);
+
+            List<Long> ids = new ArrayList<>();
+            ids.add(createOrder(user, product, suffix + "D", Order.OrderStatus.DELIVERED, Order.PaymentStatus.PAID));
+            ids.add(createOrder(user, product, suffix + "R", Order.OrderStatus.REFUNDED, Order.PaymentStatus.REFUNDED));
+            ids.add(createOrder(user, product, suffix + "P", Order.OrderStatus.PENDING, Order.PaymentStatus.UNPAID));
+
+            entityManager.flush();
+            // createdAt and orderDate are not updatable through JPQL, so backdate with plain SQL
+            entityManager.createNativeQuery("UPDATE orders SET createdAt = :createdAt, orderDate = :orderDate " +
+                            "WHERE id IN :ids")
+                    .setParameter("createdAt", DAY.atTime(10, 0))
+                    .setParameter("orderDate", DAY)
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+            return ids;
+        });
+    }
+
+    private Long createOrder(User user, Product product, String number,
+                             Order.OrderStatus status, Order.PaymentStatus paymentStatus) {
+        Order order = TestFixtures.order("RB" + number, user, product, 2);
+        order.setStatus(status);
+        order.setPaymentStatus(paymentStatus);
+        return orderRepository.save(order).getId();
+    }
+}
@@ -0,0 +1,155 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.utils.KeysetCursor;
+import com.ddd.demo.dto.order.OrderResponse;
+import com.ddd.demo.dto.order.OrderSearchRequest;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.email.outbox.poll-interval-ms=3600000")
+@ActiveProfiles("test")
+public class OrderSearchSpecificationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 15);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void statusIsKeptWhenDateRangeIsGiven() {
+        User user = createUserWithOrders();
+        OrderSearchRequest search = OrderSearchRequest.builder()
+                .userId(user.getId())
+                .status(Order.OrderStatus.CONFIRMED)
+                .startDate(DAY)
+                .endDate(DAY)
+                .build();
+
+        Page<OrderResponse> page = orderService.getAllOrders(search, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "createdAt")));
+
+        // Confirmed orders on DAY only: the one at 23:59:59.5 is inside, the one next midnight is not
+        assertEquals(2, page.getTotalElements());
+        page.forEach(order -> {
+            assertEquals(Order.OrderStatus.CONFIRMED, order.getStatus());
+            assertEquals(DAY, order.getCreatedAt().toLocalDate());
+        });
+    }
+
+    @Test
+    void allCriteriaCombineInOneQuery() {
+        User user = createUserWithOrders();
+        OrderSearchRequest search = OrderSearchRequest.builder()
+                .userId(user.getId())
+                .paymentStatus(Order.PaymentStatus.PAID)
+                .paymentMethod(Order.PaymentMethod.CREDIT_CARD)
+                .build();
+
+        Window<OrderResponse> window = orderService.getAllOrders(search, KeysetCursor.decode(null), 20);
+
+        assertEquals(1, window.size());
+        assertEquals(Order.PaymentStatus.PAID, window.getContent().get(0).getPaymentStatus());
+        assertEquals(Order.PaymentMethod.CREDIT_CARD, window.getContent().get(0).getPaymentMethod());
+        assertEquals(user.getUsername(), window.getContent().get(0).getUser().getUsername());
+    }
+
+    @Test
+    void searchShapesUseCompositeIndexes() {
+        createUserWithOrders();
+
+        assertPlanUses("IDX_STATUS_CREATED_AT",
+                "SELECT o.id FROM orders o WHERE o.status = 'CONFIRMED' AND o.createdAt >= ? AND o.createdAt < ? "
+                        + "ORDER BY o.createdAt DESC");
+        assertPlanUses("IDX_USER_CREATED_AT",
+                "SELECT o.id FROM orders o WHERE o.user_id = 1 AND o.createdAt >= ? AND o.createdAt < ? "
+                        + "ORDER BY o.createdAt DESC");
+        assertPlanUses("IDX_PAYMENT_STATUS_CREATED_AT",
+                "SELECT o.id FROM orders o WHERE o.paymentStatus = 'PAID' AND o.createdAt >= ? AND o.createdAt < ? "
+                        + "ORDER BY o.createdAt DESC");
+    }
+
+    private void assertPlanUses(String index, String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class,
+                DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+        assertTrue(plan.toUpperCase().contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+
+    private User createUserWithOrders() {
+        return transactionTemplate.execute(status -> {
+            String suffix = TestFixtures.suffix();
+            User user = fixtures.createUser("search");
+
+            Order early = order(user, suffix + "1", Order.OrderStatus.CONFIRMED, Order.PaymentStatus.PAID,
+                    Order.PaymentMethod.CREDIT_CARD);
+            Order late = order(user, suffix + "2", Order.OrderStatus.CONFIRMED, Order.PaymentStatus.UNPAID,
+                    Order.PaymentMethod.BANK_TRANSFER);
+            Order pending = order(user, suffix + "3", Order.OrderStatus.PENDING, Order.PaymentStatus.PAID,
+                    Order.PaymentMethod.BANK_TRANSFER);
+            Order nextDay = order(user, suffix + "4", Order.OrderStatus.CONFIRMED, Order.PaymentStatus.UNPAID,
+                    Order.PaymentMethod.CASH_ON_DELIVERY);
+            orderRepository.saveAll(List.of(early, late, pending, nextDay));
+            entityManager.flush();
+
+            setCreatedAt(early, DAY.atTime(9, 0));
+            setCreatedAt(late, DAY.atTime(23, 59, 59, 500_000_000));
+            setCreatedAt(pending, DAY.atTime(12, 0));
+            setCreatedAt(nextDay, DAY.plusDays(1).atStartOfDay());
+            return user;
+        });
+    }
+
+    private Order order(User user, String suffix, Order.OrderStatus status, Order.PaymentStatus paymentStatus,
+                        Order.PaymentMethod paymentMethod) {
+        return Order.builder()
+                .orderNumber("OS" + suffix)
+                .user(user)
+                .status(status)
+                .paymentStatus(paymentStatus)
+                .paymentMethod(paymentMethod)
+                .subtotal(new BigDecimal("10000.00"))
+                .totalAmount(new BigDecimal("10000.00"))
+                .build();
+    }
+
+    private void setCreatedAt(Order order, LocalDateTime createdAt) {
+        // createdAt is not updatable through JPQL, so backdate with plain SQL
+        entityManager.createNativeQuery("UPDATE orders SET createdAt = :createdAt WHERE id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", order.getId())
+                .executeUpdate();
+    }
+}
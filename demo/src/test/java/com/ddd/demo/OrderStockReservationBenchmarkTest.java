@@ -0,0 +1,170 @@
+package com.ddd.demo;
+
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the legacy per-line stock reservation (find, decrease, re-read) with the
+ * batched path used by OrderServiceImpl (one SELECT for all products, one conditional UPDATE).
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN",
+        // Statistics are global, so keep the outbox poller from adding statements mid-test
+        "app.email.outbox.poll-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+public class OrderStockReservationBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 100;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareRoundTripsAndLatency() {
+        for (int lineCount : new int[]{1, 10, 50}) {
+            List<Long> productIds = createProducts(lineCount);
+
+            Result legacy = measure(productIds, this::legacyReserve);
+            Result batch = measure(productIds, this::batchReserve);
+
+            log.info("{} lines -> legacy: {} statements, {} us/order | batch: {} statements, {} us/order",
+                    lineCount, legacy.statementsPerOrder(), legacy.microsPerOrder(),
+                    batch.statementsPerOrder(), batch.microsPerOrder());
+
+            assertEquals(2, batch.statementsPerOrder(), "Batch path must use one SELECT and one UPDATE");
+            if (lineCount > 1) {
+                assertTrue(batch.statementsPerOrder() < legacy.statementsPerOrder());
+            }
+        }
+    }
+
+    @Test
+    void batchReservationFailsWholeOrderWhenOneLineIsShort() {
+        List<Long> productIds = createProducts(3);
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(productIds.get(0), 1);
+        quantities.put(productIds.get(1), 1);
+        quantities.put(productIds.get(2), 1_000);
+
+        assertThrows(RuntimeException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> productService.reserveStock(quantities)));
+
+        productRepository.findAllById(productIds)
+                .forEach(product -> assertEquals(100, product.getStockQuantity()));
+    }
+
+    @Test
+    void batchReservationMarksDrainedProductsOutOfStock() {
+        List<Long> productIds = createProducts(2);
+        Map<Long, Integer> quantities = Map.of(productIds.get(0), 100, productIds.get(1), 40);
+
+        transactionTemplate.executeWithoutResult(status -> productService.reserveStock(quantities));
+
+        Product drained = productRepository.findById(productIds.get(0)).orElseThrow();
+        Product remaining = productRepository.findById(productIds.get(1)).orElseThrow();
+        assertEquals(0, drained.getStockQuantity());
+        assertEquals(Product.ProductStatus.OUT_OF_STOCK, drained.getStatus());
+        assertEquals(60, remaining.getStockQuantity());
+        assertEquals(Product.ProductStatus.ACTIVE, remaining.getStatus());
+    }
+
+    // The reservation loop OrderServiceImpl.processOrderItems used before batching
+    private void legacyReserve(List<Long> productIds) {
+        for (Long productId : productIds) {
+            Product product = productRepository.findById(productId).orElseThrow();
+            assertTrue(product.getStockQuantity() >= 1);
+            assertEquals(1, productRepository.decreaseStock(productId, 1));
+
+            Product reloaded = productRepository.findById(productId).orElseThrow();
+            if (reloaded.getStockQuantity() == 0) {
+                reloaded.setStatus(Product.ProductStatus.OUT_OF_STOCK);
+                productRepository.save(reloaded);
+            }
+        }
+    }
+
+    private void batchReserve(List<Long> productIds) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        productIds.forEach(productId -> quantities.put(productId, 1));
+
+        assertEquals(productIds.size(), productRepository.findAllById(quantities.keySet()).size());
+        productService.reserveStock(quantities);
+    }
+
+    private Result measure(List<Long> productIds, Consumer<List<Long>> reservation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runAndRollback(productIds, reservation);
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long[] durations = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            runAndRollback(productIds, reservation);
+            durations[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(durations);
+        return new Result(statistics.getPrepareStatementCount() / MEASURED_ITERATIONS,
+                durations[MEASURED_ITERATIONS / 2] / 1_000);
+    }
+
+    private void runAndRollback(List<Long> productIds, Consumer<List<Long>> reservation) {
+        transactionTemplate.executeWithoutResult(status -> {
+            reservation.accept(productIds);
+            status.setRollbackOnly();
+        });
+    }
+
+    private List<Long> createProducts(int count) {
+        List<Product> products = IntStream.range(0, count)
+                .mapToObj(i -> Product.builder()
+                        .productName("Benchmark product " + i)
+                        .price(new BigDecimal("10000.00"))
+                        .stockQuantity(100)
+                        .sku("BM-" + UUID.randomUUID().toString().substring(0, 12))
+                        .category("benchmark")
+                        .build())
+                .toList();
+        return productRepository.saveAll(products).stream().map(Product::getId).toList();
+    }
+
+    private record Result(long statementsPerOrder, long microsPerOrder) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.ddd.demo;
+
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.service.order.PricingEngine;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PricingEngine} with the previous BigDecimal chain (line totals, subtotal, tax,
+ * shipping, discount and total) for orders of 1, 10 and 50 lines. Both variants start from and end
+ * with BigDecimal amounts, as they do on the entities.
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.ddd.demo.PricingEngineBenchmark}
+ * or from the IDE via {@link #main(String[])}; add {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.1");
+    private static final BigDecimal STANDARD = new BigDecimal("30000");
+    private static final BigDecimal EXPRESS = new BigDecimal("50000");
+    private static final BigDecimal THRESHOLD = new BigDecimal("500000");
+
+    @Param({"1", "10", "50"})
+    private int lines;
+
+    private final PricingEngine engine = new PricingEngine(TAX_RATE, STANDARD, EXPRESS, THRESHOLD);
+    private final Order order = new Order();
+    private BigDecimal[] prices;
+    private int[] quantities;
+    private BigDecimal discount;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        prices = new BigDecimal[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(10_000 + random.nextInt(5_000_000), 2);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+        discount = new BigDecimal("15000.00");
+    }
+
+    @Benchmark
+    public Order legacyBigDecimal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal lineTotal = prices[i].multiply(BigDecimal.valueOf(quantities[i])).subtract(BigDecimal.ZERO);
+            subtotal = subtotal.add(lineTotal);
+        }
+        order.setSubtotal(subtotal);
+        order.setTaxAmount(subtotal.multiply(TAX_RATE));
+        order.setShippingFee(subtotal.compareTo(THRESHOLD) >= 0 ? BigDecimal.ZERO : STANDARD);
+        order.setDiscountAmount(discount);
+        order.calculateTotalAmount();
+        return order;
+    }
+
+    @Benchmark
+    public Order pricingEngine() {
+        long subtotal = 0;
+        for (int i = 0; i < lines; i++) {
+            subtotal += engine.lineTotal(PricingEngine.toMinor(prices[i]), quantities[i], 0);
+        }
+        long shippingFee = engine.shippingFee(subtotal, Order.ShippingMethod.STANDARD);
+        engine.price(subtotal, shippingFee, PricingEngine.toMinor(discount)).applyTo(order);
+        return order;
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(PricingEngineBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
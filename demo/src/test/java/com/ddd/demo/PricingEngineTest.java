@@ -0,0 +1,89 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.service.order.PricingEngine;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingEngineTest {
+
+    private static final BigDecimal TAX_RATE = new BigDecimal("0.1");
+    private static final BigDecimal STANDARD = new BigDecimal("30000");
+    private static final BigDecimal EXPRESS = new BigDecimal("50000");
+    private static final BigDecimal THRESHOLD = new BigDecimal("500000");
+
+    private final PricingEngine engine = new PricingEngine(TAX_RATE, STANDARD, EXPRESS, THRESHOLD);
+
+    @Test
+    void matchesTheBigDecimalCalculationOnceStored() {
+        Random random = new Random(42);
+        for (int run = 0; run < 10_000; run++) {
+            int lines = 1 + random.nextInt(50);
+            BigDecimal[] prices = new BigDecimal[lines];
+            int[] quantities = new int[lines];
+            for (int i = 0; i < lines; i++) {
+                prices[i] = BigDecimal.valueOf(random.nextInt(10_000_000), 2);
+                quantities[i] = 1 + random.nextInt(20);
+            }
+            boolean express = random.nextBoolean();
+
+            // Previous calculation, rounded the way a scale 2 DECIMAL column stores it
+            BigDecimal legacySubtotal = BigDecimal.ZERO;
+            for (int i = 0; i < lines; i++) {
+                legacySubtotal = legacySubtotal.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+            }
+            // Coupons never discount more than the subtotal
+            BigDecimal discount = BigDecimal.valueOf(random.nextInt(5_000_000), 2).min(legacySubtotal);
+            BigDecimal legacyTax = legacySubtotal.multiply(TAX_RATE);
+            BigDecimal legacyShipping = legacySubtotal.compareTo(THRESHOLD) >= 0 ? BigDecimal.ZERO
+                    : express ? EXPRESS : STANDARD;
+            BigDecimal legacyTotal = legacySubtotal.add(legacyTax).add(legacyShipping).subtract(discount);
+
+            long subtotal = 0;
+            for (int i = 0; i < lines; i++) {
+                subtotal += engine.lineTotal(PricingEngine.toMinor(prices[i]), quantities[i], 0);
+            }
+            long shipping = engine.shippingFee(subtotal,
+                    express ? Order.ShippingMethod.EXPRESS : Order.ShippingMethod.STANDARD);
+            PricingEngine.Amounts amounts = engine.price(subtotal, shipping, PricingEngine.toMinor(discount));
+
+            assertEquals(stored(legacySubtotal), PricingEngine.toAmount(amounts.subtotal()));
+            assertEquals(stored(legacyTax), PricingEngine.toAmount(amounts.tax()));
+            assertEquals(stored(legacyShipping), PricingEngine.toAmount(amounts.shippingFee()));
+            assertEquals(stored(legacyTotal), PricingEngine.toAmount(amounts.total()));
+        }
+    }
+
+    @Test
+    void roundsTaxHalfUp() {
+        assertEquals(1, engine.tax(5));
+        assertEquals(0, engine.tax(4));
+        assertEquals(-1, engine.tax(-5));
+        assertEquals(30_000_000, engine.tax(300_000_000));
+    }
+
+    @Test
+    void shippingIsFreeFromTheThreshold() {
+        assertEquals(0, engine.shippingFee(50_000_000, Order.ShippingMethod.EXPRESS));
+        assertEquals(5_000_000, engine.shippingFee(49_999_999, Order.ShippingMethod.EXPRESS));
+        assertEquals(3_000_000, engine.shippingFee(0, Order.ShippingMethod.OVERNIGHT));
+    }
+
+    @Test
+    void rejectsOverflowAndUnsupportedRates() {
+        assertThrows(BusinessException.class, () -> engine.lineTotal(Long.MAX_VALUE / 2, 3, 0));
+        assertThrows(BusinessException.class, () -> engine.tax(Long.MAX_VALUE / 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingEngine(new BigDecimal("0.1234567"), STANDARD, EXPRESS, THRESHOLD));
+    }
+
+    private static BigDecimal stored(BigDecimal amount) {
+        return amount.setScale(PricingEngine.SCALE, RoundingMode.HALF_UP);
+    }
+}
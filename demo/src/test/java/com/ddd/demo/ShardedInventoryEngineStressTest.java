@@ -0,0 +1,166 @@
+package com.ddd.demo;
+
+import com.ddd.demo.common.exception.BusinessException;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.service.inventory.ShardedInventoryEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class ShardedInventoryEngineStressTest {
+
+    private static final long HOT_PRODUCT_ID = 1L;
+    private static final int INITIAL_STOCK = 10_000;
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 2_000;
+
+    private ProductRepository productRepository;
+    private ShardedInventoryEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        List<Object[]> stockLevels = new ArrayList<>();
+        stockLevels.add(new Object[]{HOT_PRODUCT_ID, INITIAL_STOCK});
+        stockLevels.add(new Object[]{2L, 5});
+        when(productRepository.findAllStockLevels()).thenReturn(stockLevels);
+        when(productRepository.findStockQuantityById(anyLong())).thenReturn(Optional.empty());
+
+        engine = new ShardedInventoryEngine(productRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(engine, "shardCount", 16);
+        ReflectionTestUtils.setField(engine, "flushBatchSize", 50);
+        engine.loadFromDatabase();
+    }
+
+    @Test
+    void hammeringOneSkuNeverOversells() throws InterruptedException {
+        AtomicLong reserved = new AtomicLong();
+        AtomicLong released = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int quantity = random.nextInt(1, 4);
+                    if (engine.tryReserve(HOT_PRODUCT_ID, quantity)) {
+                        reserved.addAndGet(quantity);
+                        // Simulate a share of checkouts rolling back
+                        if (random.nextInt(10) == 0) {
+                            engine.release(HOT_PRODUCT_ID, quantity);
+                            released.addAndGet(quantity);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        long sold = reserved.get() - released.get();
+        long available = engine.getAvailable(HOT_PRODUCT_ID);
+        assertTrue(available >= 0, "Available stock went negative");
+        assertTrue(sold <= INITIAL_STOCK, "Sold more than the initial stock");
+        assertEquals(INITIAL_STOCK, sold + available, "Reservations were lost or duplicated");
+
+        // Whatever is left can still be sold one unit at a time
+        while (engine.tryReserve(HOT_PRODUCT_ID, 1)) {
+            sold++;
+        }
+        assertEquals(INITIAL_STOCK, sold);
+        assertEquals(0, engine.getAvailable(HOT_PRODUCT_ID));
+
+        // The net delta written back to the database matches what was sold
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, Integer>> deltas = ArgumentCaptor.forClass(Map.class);
+        engine.flush();
+        verify(productRepository).applyStockDeltas(deltas.capture());
+        assertEquals(INITIAL_STOCK, deltas.getValue().get(HOT_PRODUCT_ID));
+    }
+
+    @Test
+    void reserveAllIsAllOrNothing() {
+        assertThrows(BusinessException.class,
+                () -> engine.reserveAll(Map.of(HOT_PRODUCT_ID, 3, 2L, 6)));
+
+        assertEquals(INITIAL_STOCK, engine.getAvailable(HOT_PRODUCT_ID));
+        assertEquals(5, engine.getAvailable(2L));
+    }
+
+    @Test
+    void quantitySpreadAcrossShardsCanStillBeReserved() {
+        // 5 units over 16 shards leaves no single shard able to cover the request
+        assertTrue(engine.tryReserve(2L, 5));
+        assertFalse(engine.tryReserve(2L, 1));
+    }
+
+    @Test
+    void setStockOverwritesPendingDecrementsAndKeepsLaterOnes() {
+        Product product = Product.builder().stockQuantity(5).build();
+        when(productRepository.findByIdForUpdate(2L)).thenReturn(Optional.of(product));
+        assertTrue(engine.tryReserve(2L, 3));
+
+        engine.setStock(2L, 20);
+        assertEquals(20, product.getStockQuantity());
+        assertEquals(20, engine.getAvailable(2L));
+
+        // Only the reservation made after the update is written back on top of it
+        assertTrue(engine.tryReserve(2L, 4));
+        engine.flush();
+        verify(productRepository).applyStockDeltas(Map.of(2L, 4));
+        assertEquals(16, engine.getAvailable(2L));
+    }
+
+    @Test
+    void deactivatedProductCannotBeReservedButStillFlushes() {
+        assertTrue(engine.tryReserve(2L, 2));
+
+        engine.setSellable(2L, false);
+        assertFalse(engine.tryReserve(2L, 1));
+        assertThrows(BusinessException.class, () -> engine.reserveAll(Map.of(2L, 1)));
+
+        engine.flush();
+        verify(productRepository).applyStockDeltas(Map.of(2L, 2));
+
+        engine.setSellable(2L, true);
+        assertTrue(engine.tryReserve(2L, 1));
+    }
+
+    @Test
+    void failedWriteBackIsRetriedOnNextFlush() {
+        assertTrue(engine.tryReserve(HOT_PRODUCT_ID, 7));
+        when(productRepository.applyStockDeltas(anyMap()))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(1);
+
+        engine.flush();
+        engine.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<Long, Integer>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(productRepository, times(2)).applyStockDeltas(deltas.capture());
+        assertEquals(7, deltas.getAllValues().get(1).get(HOT_PRODUCT_ID));
+    }
+}
@@ -0,0 +1,108 @@
+package com.ddd.demo;
+
+import com.ddd.demo.entity.order.Order;
+import com.ddd.demo.entity.order.OrderItem;
+import com.ddd.demo.entity.product.Product;
+import com.ddd.demo.entity.user.User;
+import com.ddd.demo.repository.OrderRepository;
+import com.ddd.demo.repository.ProductRepository;
+import com.ddd.demo.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Users, products and orders for the integration tests.
+ * <p>
+ * Tests share one in-memory database per context, so every unique column (username, email, SKU,
+ * order number) gets a random suffix. The prefix names the test's data, e.g. {@code "cache"} gives
+ * user {@code cache1a2b3c4d}, SKU {@code CACHE-1a2b3c4d} and order number {@code CACHE1a2b3c4d}.
+ */
+@Component
+public class TestFixtures {
+
+    public static final String DEFAULT_PRICE = "15000.00";
+
+    private final UserRepository userRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+
+    public TestFixtures(UserRepository userRepository, ProductRepository productRepository,
+                        OrderRepository orderRepository) {
+        this.userRepository = userRepository;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    public static String suffix() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    // Unsaved, for tests that save several users at once
+    public static User user(String prefix) {
+        String suffix = suffix();
+        return User.builder()
+                .username(prefix + suffix)
+                .email(prefix + suffix + "@example.com")
+                .password("secret")
+                .fullName("Test " + prefix)
+                .build();
+    }
+
+    // Unsaved order of one line; subtotal and total are the line total, payment by credit card
+    public static Order order(String orderNumber, User user, Product product, int quantity) {
+        OrderItem item = item(product, quantity);
+        Order order = Order.builder()
+                .orderNumber(orderNumber)
+                .user(user)
+                .paymentMethod(Order.PaymentMethod.CREDIT_CARD)
+                .subtotal(item.getTotalPrice())
+                .totalAmount(item.getTotalPrice())
+                .build();
+        order.addOrderItem(item);
+        return order;
+    }
+
+    public static OrderItem item(Product product, int quantity) {
+        OrderItem item = OrderItem.builder()
+                .product(product)
+                .quantity(quantity)
+                .unitPrice(product.getPrice())
+                .build();
+        item.calculateTotalPrice();
+        return item;
+    }
+
+    public User createUser(String prefix) {
+        return userRepository.save(user(prefix));
+    }
+
+    // The category doubles as the prefix of the product's name and SKU
+    public Product createProduct(String category, String price, int stock) {
+        String suffix = suffix();
+        return productRepository.save(Product.builder()
+                .productName(category + " product " + suffix)
+                .price(new BigDecimal(price))
+                .stockQuantity(stock)
+                .sku(category.toUpperCase() + "-" + suffix)
+                .category(category)
+                .build());
+    }
+
+    public Order createOrder(String prefix, int quantity) {
+        return createOrder(prefix, DEFAULT_PRICE, quantity, order -> { });
+    }
+
+    // A new user orders quantity units of a new product; the customizer adjusts the order before it is saved
+    @Transactional
+    public Order createOrder(String prefix, String price, int quantity, Consumer<Order> customizer) {
+        User user = createUser(prefix);
+        Product product = createProduct(prefix, price, 100);
+        Order order = order(prefix.toUpperCase() + suffix(), user, product, quantity);
+        customizer.accept(order);
+        return orderRepository.save(order);
+    }
+}